@@ -0,0 +1,68 @@
+#ifndef JAVA_SERIALIZATION_BYTE_ORDER_H
+#define JAVA_SERIALIZATION_BYTE_ORDER_H
+
+///\file
+///\brief Bulk conversion between big endian and native byte order.
+
+#include <cstddef>
+#include <cstdint>
+#include <cstring>
+#include <type_traits>
+#include <boost/endian/conversion.hpp>
+
+namespace java::serialization {
+namespace detail {
+
+
+template<std::size_t Size> struct byte_order_uint_;
+template<> struct byte_order_uint_<2> { using type = std::uint16_t; };
+template<> struct byte_order_uint_<4> { using type = std::uint32_t; };
+template<> struct byte_order_uint_<8> { using type = std::uint64_t; };
+
+
+} /* namespace java::serialization::detail */
+
+/**
+ * \brief Convert \p n big endian values of type \p T, in place.
+ * \details
+ * Works on the raw bytes, so \p data need not be aligned, nor hold objects
+ * of type \p T.
+ * The loop is written as load, byte swap, store,
+ * which compilers turn into vector shuffles.
+ * \tparam T The primitive type stored at \p data.
+ * \param data Pointer to \p n values of type \p T.
+ * \param n The number of values.
+ */
+template<typename T>
+inline auto big_to_native_inplace_n(void* data, std::size_t n) noexcept
+-> void {
+  static_assert(std::is_arithmetic_v<T>);
+
+  if constexpr(sizeof(T) > 1u && boost::endian::order::native != boost::endian::order::big) {
+    using uint_type = typename detail::byte_order_uint_<sizeof(T)>::type;
+
+    std::uint8_t*const bytes = static_cast<std::uint8_t*>(data);
+    for (std::size_t i = 0; i < n; ++i) {
+      uint_type v;
+      std::memcpy(&v, bytes + i * sizeof(T), sizeof(T));
+      v = boost::endian::endian_reverse(v);
+      std::memcpy(bytes + i * sizeof(T), &v, sizeof(T));
+    }
+  }
+}
+
+/**
+ * \brief Convert \p n native values of type \p T to big endian, in place.
+ * \sa big_to_native_inplace_n
+ */
+template<typename T>
+inline auto native_to_big_inplace_n(void* data, std::size_t n) noexcept
+-> void {
+  // Byte swapping is its own inverse.
+  big_to_native_inplace_n<T>(data, n);
+}
+
+
+} /* namespace java::serialization */
+
+#endif /* JAVA_SERIALIZATION_BYTE_ORDER_H */
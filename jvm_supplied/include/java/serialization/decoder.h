@@ -13,14 +13,44 @@
 #include <cycle_ptr/allocator.h>
 #include <unordered_set>
 #include <unordered_map>
+#include <utility>
 #include <optional>
 #include <variant>
+#include <vector>
+#include <cassert>
+#include <cstddef>
+#include <functional>
 
 namespace java::serialization {
 
 class decoder_ctx {
+ public:
+  /**
+   * \brief Mapping of slot indices to field positions.
+   * \details
+   * Element \p i holds the position in the class data of the field in slot \p i.
+   * Fields that are absent from the class description hold
+   * \ref missing_slot "missing_slot".
+   */
+  using field_slots = ::std::vector<::std::size_t>;
+
+  ///\brief Position used for slots that have no field in the class description.
+  static constexpr ::std::size_t missing_slot = ::std::size_t(-1);
+
  private:
   using decoder_map = std::unordered_map<::cycle_ptr::cycle_gptr<stream::stream_element>, ::cycle_ptr::cycle_gptr<::java::serialization::decoder>>;
+  ///\brief Slot mappings are specific to a class description and a slot table.
+  using slot_key = ::std::pair<::cycle_ptr::cycle_gptr<const stream::class_desc>, const ::std::u16string_view*>;
+
+  struct slot_key_hash {
+    auto operator()(const slot_key& k) const noexcept
+    -> ::std::size_t {
+      return ::std::hash<::cycle_ptr::cycle_gptr<const stream::class_desc>>()(k.first) * 31u
+          ^ ::std::hash<const ::std::u16string_view*>()(k.second);
+    }
+  };
+
+  using slot_map = std::unordered_map<slot_key, field_slots, slot_key_hash>;
 
  public:
   decoder_ctx(const module& m);
@@ -53,8 +83,24 @@ class decoder_ctx {
     return module_;
   }
 
+  /**
+   * \brief Retrieve the slot mapping for a class description.
+   * \details
+   * The mapping is computed the first time the class description is seen
+   * with this slot table, and cached for the remainder of the decoding.
+   * This is the only place where slot names are compared with field names;
+   * slot access itself is a plain index.
+   * \param cls The class description, which must be a \ref stream::new_class_desc__class_desc "normal class description".
+   * \param slot_names The field names of the slot table, in slot order.
+   * \param slot_count The number of entries in \p slot_names.
+   * \returns Mapping of slot indices to field positions.
+   */
+  auto slots(const ::cycle_ptr::cycle_gptr<const stream::class_desc>& cls, const ::std::u16string_view* slot_names, ::std::size_t slot_count)
+  -> const field_slots&;
+
  private:
   decoder_map decoder_map_;
+  slot_map slot_map_;
   const module& module_;
 };
 
@@ -191,6 +237,13 @@ class class_decoder_intf
   auto init_comparable() -> dependent_set override;
   auto complete() -> dependent_set override;
 
+  ///\brief Retrieve the slot mapping for a class description.
+  ///\sa decoder_ctx::slots
+  JSER_INLINE auto slots(const ::cycle_ptr::cycle_gptr<const stream::class_desc>& cls, const ::std::u16string_view* slot_names, ::std::size_t slot_count) const
+  -> const decoder_ctx::field_slots& {
+    return ctx.slots(cls, slot_names, slot_count);
+  }
+
  private:
   static auto cast_data_(::cycle_ptr::cycle_gptr<const stream::stream_element> data)
   -> ::cycle_ptr::cycle_gptr<const stream::new_object>;
@@ -206,21 +259,28 @@ class basic_class_decoder {
   template<typename> friend class class_decoder;
 
  protected:
-  basic_class_decoder(class_decoder_intf& intf, cycle_ptr::cycle_gptr<const stream::class_desc> cls, std::u16string_view name);
+  basic_class_decoder(class_decoder_intf& intf, cycle_ptr::cycle_gptr<const stream::class_desc> cls, std::u16string_view name, const std::u16string_view* slot_names, std::size_t slot_count);
   ~basic_class_decoder() noexcept;
 
  public:
   template<typename T>
   auto get_primitive_field(::std::u16string_view name, std::optional<T> fb = ::std::optional<T>()) const
   -> T {
-    const stream::new_object::class_data::field_value*const field = get_field_(name);
-    if (!field) {
-      if (fb) return *fb;
-      throw decoding_error("missing field data");
-    }
+    return primitive_value_<T>(get_field_(name), ::std::move(fb));
+  }
 
-    if (!::std::holds_alternative<T>(*field)) throw decoding_error("field has incorrect type");
-    return ::std::get<T>(*field);
+  /**
+   * \brief Retrieve a primitive field by slot.
+   * \details
+   * Slots are indices in the slot table of the tag,
+   * which lists the serialization fields in the order the code generator
+   * knows them.
+   * Unlike get_primitive_field, no name lookup is performed.
+   */
+  template<typename T>
+  JSER_INLINE auto get_primitive_slot(::std::size_t slot, std::optional<T> fb = ::std::optional<T>()) const
+  -> T {
+    return primitive_value_<T>(get_slot_(slot), ::std::move(fb));
   }
 
   template<typename T>
@@ -241,6 +301,30 @@ class basic_class_decoder {
     return ::java::cast<T>(get_complete_field_(name));
   }
 
+  ///\brief Retrieve a field by slot, at the initial stage.
+  ///\sa get_primitive_slot
+  template<typename T>
+  JSER_INLINE auto get_initial_slot(::std::size_t slot) const
+  -> T {
+    return ::java::cast<T>(intf_.initial_field(object_value_(get_slot_(slot))));
+  }
+
+  ///\brief Retrieve a field by slot, at the comparable stage.
+  ///\sa get_primitive_slot
+  template<typename T>
+  JSER_INLINE auto get_comparable_slot(::std::size_t slot) const
+  -> T {
+    return ::java::cast<T>(intf_.comparable_field(object_value_(get_slot_(slot))));
+  }
+
+  ///\brief Retrieve a field by slot, at the complete stage.
+  ///\sa get_primitive_slot
+  template<typename T>
+  JSER_INLINE auto get_complete_slot(::std::size_t slot) const
+  -> T {
+    return ::java::cast<T>(intf_.complete_field(object_value_(get_slot_(slot))));
+  }
+
   JSER_INLINE auto get_annotation() const
   -> annotation_reader {
     return annotation_reader(intf_, cd_.annotation);
@@ -253,6 +337,29 @@ class basic_class_decoder {
   auto get_field_(::std::u16string_view name) const
   -> const stream::new_object::class_data::field_value*;
 
+  JSER_INLINE auto get_slot_(::std::size_t slot) const
+  -> const stream::new_object::class_data::field_value* {
+    assert(slot < slots_.size());
+    const ::std::size_t pos = slots_[slot];
+    if (pos >= cd_.fields.size()) return nullptr;
+    return &cd_.fields[pos].second;
+  }
+
+  template<typename T>
+  static auto primitive_value_(const stream::new_object::class_data::field_value* field, std::optional<T> fb)
+  -> T {
+    if (!field) {
+      if (fb) return *fb;
+      throw decoding_error("missing field data");
+    }
+
+    if (!::std::holds_alternative<T>(*field)) throw decoding_error("field has incorrect type");
+    return ::std::get<T>(*field);
+  }
+
+  static auto object_value_(const stream::new_object::class_data::field_value* field)
+  -> ::cycle_ptr::cycle_gptr<const stream::stream_element>;
+
   auto get_initial_field_(::std::u16string_view name) const
   -> ::java::lang::Object;
 
@@ -268,6 +375,8 @@ class basic_class_decoder {
   const cycle_ptr::cycle_gptr<const stream::class_desc> cls_;
   ///\brief Class data.
   const stream::new_object::class_data& cd_;
+  ///\brief Mapping of slots to positions in the class data.
+  const decoder_ctx::field_slots& slots_;
 };
 
 
@@ -277,13 +386,17 @@ class class_decoder
 {
  public:
   class_decoder(class_decoder_intf& intf)
-  : basic_class_decoder(intf, intf.data->cls, Tag::u_name())
+  : basic_class_decoder(intf, intf.data->cls, Tag::u_name(), slot_names_.data(), slot_names_.size())
   {}
 
   template<typename OtherTag>
   class_decoder(const class_decoder<OtherTag>& other)
-  : basic_class_decoder(other.intf_, other.cls_->get_super(), Tag::u_name())
+  : basic_class_decoder(other.intf_, other.cls_->get_super(), Tag::u_name(), slot_names_.data(), slot_names_.size())
   {}
+
+ private:
+  ///\brief Slot table of the tag.
+  static constexpr auto slot_names_ = Tag::u_fields();
 };
 
 
@@ -11,6 +11,8 @@
 #include <stack>
 #include <codecvt>
 #include <ostream>
+#include <streambuf>
+#include <type_traits>
 
 namespace java::serialization::stream {
 
@@ -113,6 +115,7 @@ inline auto reader::read_(basic_read_wrapper& read)
       big_to_native_inplace(hdr);
 
       if (hdr != TC_RESET) break;
+      // Keeps the capacity of the handle table, for the handles that follow.
       referents_.clear();
     }
 
@@ -137,6 +140,27 @@ inline auto reader::read_(basic_read_wrapper& read)
   }
 }
 
+inline auto reader::handle_hint_(std::istream& stream)
+-> std::size_t {
+  // Smallest plausible encoded size of a handle-bearing element,
+  // used to guess the number of handles from the size of the stream.
+  constexpr std::size_t bytes_per_handle = 16;
+  // Cap on the guess, so huge streams don't cause huge up-front allocations.
+  constexpr std::size_t max_hint = std::size_t(1) << 16;
+
+  // Operate on the stream buffer, so unseekable streams don't get their
+  // error state set.
+  std::streambuf*const sb = stream.rdbuf();
+  if (sb == nullptr) return 0;
+  const auto pos = sb->pubseekoff(0, std::ios_base::cur, std::ios_base::in);
+  if (pos == std::streampos(-1)) return 0;
+  const auto end = sb->pubseekoff(0, std::ios_base::end, std::ios_base::in);
+  sb->pubseekpos(pos, std::ios_base::in);
+  if (end == std::streampos(-1) || end < pos) return 0;
+
+  return std::min(std::size_t(end - pos) / bytes_per_handle, max_hint);
+}
+
 inline auto reader::next_handle(cycle_ptr::cycle_gptr<const stream_element> v)
 -> std::uint32_t {
   if (v == nullptr)
@@ -157,10 +181,16 @@ auto reader::get_handle(std::uint32_t idx) const
   if (idx >= referents_.size())
     throw decoding_error("invalid handle");
 
-  cycle_ptr::cycle_gptr<const T> result = std::dynamic_pointer_cast<const T>(referents_[idx]);
-  if (result != nullptr) return result;
-  assert(referents_[idx] != nullptr);
-  throw decoding_error("invalid handle type");
+  const auto& referent = referents_[idx];
+  assert(referent != nullptr);
+  if constexpr(std::is_same_v<std::remove_const_t<T>, stream_element>) {
+    // Untyped back references don't need a type check.
+    return referent;
+  } else {
+    cycle_ptr::cycle_gptr<const T> result = std::dynamic_pointer_cast<const T>(referent);
+    if (result != nullptr) return result;
+    throw decoding_error("invalid handle type");
+  }
 }
 
 
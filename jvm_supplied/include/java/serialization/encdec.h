@@ -1,8 +1,10 @@
 #ifndef JAVA_SERIALIZATION_ENCDEC_H
 #define JAVA_SERIALIZATION_ENCDEC_H
 
+#include <algorithm>
 #include <cstddef>
 #include <cstdint>
+#include <cstring>
 #include <iosfwd>
 #include <istream>
 #include <map>
@@ -36,6 +38,21 @@ class basic_read_wrapper {
  public:
   virtual auto operator()(boost::asio::mutable_buffer buffer) const -> void = 0;
   virtual auto operator()(std::initializer_list<boost::asio::mutable_buffer> buffers) const -> void = 0;
+
+  /**
+   * \brief Access the next \p n bytes in place.
+   * \details
+   * Wrappers backed by contiguous memory consume \p n bytes and return a
+   * pointer to them, allowing the caller to decode without copying.
+   * Other wrappers consume nothing and return nullptr,
+   * in which case the caller must fall back to reading into a buffer.
+   * \returns Pointer to the next \p n bytes, or nullptr if in place access
+   * is not supported.
+   */
+  virtual auto contiguous([[maybe_unused]] std::size_t n) const
+  -> const std::uint8_t* {
+    return nullptr;
+  }
 };
 
 class stream_element;
@@ -477,12 +494,16 @@ struct new_object
         std::int16_t,
         bool,
         cycle_ptr::cycle_member_ptr<const stream_element>>;
-    using field_map = std::unordered_map<
-        stream_string,
-        field_value,
-        std::hash<stream_string>,
-        std::equal_to<stream_string>,
-        typename std::allocator_traits<allocator_type>::template rebind_alloc<std::pair<const stream_string, field_value>>>;
+    /**
+     * \brief Field values, in the order of the class description.
+     * \details
+     * Decoded objects hold their fields in the same order as the
+     * \ref class_desc_info::fields "fields of the class description",
+     * which allows decoders to address fields by position.
+     */
+    using field_map = std::vector<
+        std::pair<stream_string, field_value>,
+        typename std::allocator_traits<allocator_type>::template rebind_alloc<std::pair<stream_string, field_value>>>;
 
     using annotation_type = std::variant<
         cycle_ptr::cycle_member_ptr<const stream_element>,
@@ -509,6 +530,10 @@ struct new_object
             cycle_ptr::cycle_gptr<const stream_element>,
             blockdata>>;
 
+    ///\brief Tag selecting the constructor for decoded fields.
+    struct decoded_fields_t {};
+    static constexpr decoded_fields_t decoded_fields{};
+
     explicit class_data(allocator_type alloc)
     : fields(alloc),
       annotation(alloc)
@@ -556,6 +581,26 @@ struct new_object
       assign_annotation(annotation);
     }
 
+    /**
+     * \brief Construct from decoded fields.
+     * \details
+     * Decoded fields are in the order of the class description
+     * and have unique names, so they are appended without looking
+     * for an existing field of the same name.
+     */
+    template<typename FieldMap, typename AnnotationVector>
+    class_data(decoded_fields_t, FieldMap&& new_fields, const AnnotationVector& annotation, allocator_type alloc)
+    : class_data(alloc)
+    {
+      fields.reserve(new_fields.size());
+      std::for_each(
+          new_fields.begin(), new_fields.end(),
+          [this](auto& pair) {
+            this->append_field(std::move(pair.first), std::move(pair.second));
+          });
+      assign_annotation(annotation);
+    }
+
     template<typename FieldMap>
     class_data(const FieldMap& fields, annotation_initializer_list annotation, allocator_type alloc)
     : class_data(alloc)
@@ -617,42 +662,32 @@ struct new_object
     template<typename String, typename Field>
     static auto set_field(field_map& fields, String&& key, Field&& field)
     -> void {
-#if __has_cpp_attribute(__cpp_lib_unordered_map_try_emplace) >= 201411
-      std::visit(
-          [&fields, &key](auto&& v) {
-            if constexpr(std::is_convertible_v<std::decay_t<decltype(v)>, cycle_ptr::cycle_gptr<const stream_element>>) {
-              const auto emplace_result = fields.try_emplace(
-                  stream_string(std::forward<String>(key)),
-                  std::in_place_type<cycle_ptr::cycle_member_ptr<const stream_element>>, std::forward<decltype(v)>(v));
-              if (!emplace_result.second)
-                emplace_result.first->second.template emplace<cycle_ptr::cycle_member_ptr<const stream_element>>(std::forward<decltype(v)>(v));
-            } else {
-              const auto emplace_result = fields.try_emplace(
-                  stream_string(std::forward<String>(key)),
-                  std::in_place_type<std::decay_t<decltype(v)>>, std::forward<decltype(v)>(v));
-              if (!emplace_result.second)
-                emplace_result.first->second.template emplace<std::decay_t<decltype(v)>>(std::forward<decltype(v)>(v));
-            }
-          },
-          std::forward<Field>(field));
-#else
-      fields.erase(stream_string(key));
-      std::visit(
-          [&fields, &key](auto&& v) {
-            if constexpr(std::is_convertible_v<std::decay_t<decltype(v)>, cycle_ptr::cycle_gptr<const stream_element>>) {
-              fields.emplace(
-                  std::piecewise_construct,
-                  std::forward_as_tuple(std::forward<String>(key)),
-                  std::forward_as_tuple(std::in_place_type<cycle_ptr::cycle_member_ptr<const stream_element>>, std::forward<decltype(v)>(v)));
-            } else {
-              fields.emplace(
-                  std::piecewise_construct,
-                  std::forward_as_tuple(std::forward<String>(key)),
-                  std::forward_as_tuple(std::in_place_type<std::decay_t<decltype(v)>>, std::forward<decltype(v)>(v)));
-            }
-          },
-          std::forward<Field>(field));
-#endif
+      auto field_iter = std::find_if(
+          fields.begin(), fields.end(),
+          [&key](const auto& pair) { return pair.first == key; });
+      if (field_iter == fields.end())
+        field_iter = fields.emplace(fields.end(), std::piecewise_construct, std::forward_as_tuple(std::forward<String>(key)), std::forward_as_tuple());
+
+      assign_field_value_(field_iter->second, std::forward<Field>(field));
+    }
+
+    ///\brief Add a field at the end, without checking if the name is already present.
+    template<typename String, typename Field>
+    auto append_field(String&& key, Field&& field)
+    -> void {
+      auto& pair = fields.emplace_back(std::piecewise_construct, std::forward_as_tuple(std::forward<String>(key)), std::forward_as_tuple());
+      assign_field_value_(pair.second, std::forward<Field>(field));
+    }
+
+    ///\brief Look up a field by name.
+    ///\returns Pointer to the field value, or nullptr if the field is absent.
+    auto find_field(std::u16string_view name) const
+    -> const field_value* {
+      const auto field_iter = std::find_if(
+          fields.begin(), fields.end(),
+          [name](const auto& pair) { return pair.first == name; });
+      if (field_iter == fields.end()) return nullptr;
+      return &field_iter->second;
     }
 
     template<typename AnnotationVector>
@@ -674,6 +709,20 @@ struct new_object
                 v);
           });
     }
+
+   private:
+    template<typename Field>
+    static auto assign_field_value_(field_value& dst, Field&& field)
+    -> void {
+      std::visit(
+          [&dst](auto&& v) {
+            if constexpr(std::is_convertible_v<std::decay_t<decltype(v)>, cycle_ptr::cycle_gptr<const stream_element>>)
+              dst.template emplace<cycle_ptr::cycle_member_ptr<const stream_element>>(std::forward<decltype(v)>(v));
+            else
+              dst.template emplace<std::decay_t<decltype(v)>>(std::forward<decltype(v)>(v));
+          },
+          std::forward<Field>(field));
+    }
   };
 
   using field_value = class_data::field_value;
@@ -1124,6 +1173,47 @@ class iostream_read_wrapper_
   std::istream& stream_;
 };
 
+/**
+ * \brief Read wrapper over contiguous memory.
+ * \details
+ * Reads consume the front of the referenced buffer,
+ * so successive reads continue where the previous read stopped.
+ * \sa mapped_file
+ */
+class buffer_read_wrapper_
+: public basic_read_wrapper
+{
+ public:
+  explicit buffer_read_wrapper_(boost::asio::const_buffer& buf) noexcept
+  : buf_(buf)
+  {}
+
+  auto operator()(boost::asio::mutable_buffer buffer) const
+  -> void override {
+    if (buffer.size() == 0) return;
+    std::memcpy(buffer.data(), contiguous(buffer.size()), buffer.size());
+  }
+
+  auto operator()(std::initializer_list<boost::asio::mutable_buffer> buffers) const
+  -> void override {
+    for (auto& buf : buffers)
+      (*this)(buf);
+  }
+
+  auto contiguous(std::size_t n) const
+  -> const std::uint8_t* override {
+    if (buf_.size() < n)
+      throw decoding_error("insufficient data");
+
+    const std::uint8_t*const result = static_cast<const std::uint8_t*>(buf_.data());
+    buf_ += n;
+    return result;
+  }
+
+ private:
+  boost::asio::const_buffer& buf_;
+};
+
 template<typename Stream, typename Yield>
 class co_read_wrapper_
 : public basic_read_wrapper
@@ -1170,6 +1260,12 @@ inline auto read_wrapper(std::istream& stream) noexcept
   return iostream_read_wrapper_(stream);
 }
 
+///\brief Helper type, that reads from (and advances) a buffer in memory.
+inline auto read_wrapper(boost::asio::const_buffer& buf) noexcept
+-> buffer_read_wrapper_ {
+  return buffer_read_wrapper_(buf);
+}
+
 
 class reader {
   friend struct stream_string;
@@ -1276,6 +1372,10 @@ class reader {
   template<typename Stream>
   auto read(Stream& stream)
   -> content_type {
+    if constexpr(std::is_base_of_v<std::istream, Stream>) {
+      if (!header_consumed_) reserve_handles(handle_hint_(stream));
+    }
+
     auto wrapper = read_wrapper(stream);
     return read_(wrapper);
   }
@@ -1287,14 +1387,30 @@ class reader {
     return read_(wrapper);
   }
 
+  /**
+   * \brief Reserve space in the handle table.
+   * \details
+   * Handles are dense and sequential, so the handle table is a vector
+   * indexed by handle.
+   * Reserving avoids reallocation while the stream is decoded.
+   * The reservation survives a TC_RESET in the stream.
+   * \param n The number of handles to reserve space for.
+   */
+  auto reserve_handles(std::size_t n)
+  -> void {
+    referents_.reserve(n);
+  }
+
  private:
   auto read_(basic_read_wrapper& read) -> content_type;
+  static auto handle_hint_(std::istream& stream) -> std::size_t;
 
   auto next_handle(cycle_ptr::cycle_gptr<const stream_element> v) -> std::uint32_t;
   template<typename T>
   auto get_handle(std::uint32_t idx) const -> cycle_ptr::cycle_gptr<const T>;
 
   bool header_consumed_ = false;
+  ///\brief Handle table, indexed by handle minus base_wire_handle.
   referent_vector referents_;
 };
 
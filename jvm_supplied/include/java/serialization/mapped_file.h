@@ -0,0 +1,63 @@
+#ifndef JAVA_SERIALIZATION_MAPPED_FILE_H
+#define JAVA_SERIALIZATION_MAPPED_FILE_H
+
+#include <cstddef>
+#include <cstdint>
+#include <string>
+#include <vector>
+#include <boost/asio/buffer.hpp>
+
+namespace java::serialization {
+
+
+/**
+ * \brief Read-only view of a file in memory.
+ * \details
+ * On POSIX systems, the file is memory mapped.
+ * Elsewhere, the file contents are read into memory.
+ *
+ * Combined with \ref stream::reader "reader", this decodes without copying
+ * through a stream:
+ * \code
+ * mapped_file file("dump.ser");
+ * boost::asio::const_buffer buf = file.buffer();
+ * stream::reader r;
+ * auto obj = r.read(buf);
+ * \endcode
+ */
+class mapped_file {
+ public:
+  ///\brief Map the named file.
+  ///\throws std::system_error if the file can not be opened or mapped.
+  explicit mapped_file(const std::string& filename);
+  mapped_file(const mapped_file&) = delete;
+  mapped_file& operator=(const mapped_file&) = delete;
+  ~mapped_file() noexcept;
+
+  auto data() const noexcept
+  -> const std::uint8_t* {
+    return data_;
+  }
+
+  auto size() const noexcept
+  -> std::size_t {
+    return size_;
+  }
+
+  ///\brief Buffer spanning the full file.
+  auto buffer() const noexcept
+  -> boost::asio::const_buffer {
+    return boost::asio::const_buffer(data_, size_);
+  }
+
+ private:
+  const std::uint8_t* data_ = nullptr;
+  std::size_t size_ = 0;
+  ///\brief File contents, if the file could not be mapped.
+  std::vector<std::uint8_t> fallback_;
+};
+
+
+} /* namespace java::serialization */
+
+#endif /* JAVA_SERIALIZATION_MAPPED_FILE_H */
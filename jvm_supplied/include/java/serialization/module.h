@@ -2,9 +2,15 @@
 #define JAVA_SERIALIZATION_MODULE_H
 
 #include <java/serialization/module_fwd.h>
+#include <array>
+#include <cstddef>
+#include <cstdint>
 #include <initializer_list>
+#include <memory>
 #include <string_view>
 #include <unordered_map>
+#include <variant>
+#include <vector>
 #include <cycle_ptr/cycle_ptr.h>
 #include <java/generics.h>
 #include <java/lang/Class.h>
@@ -24,12 +30,77 @@ class module {
     decoder_factory decoder;
   };
 
+  ///\brief Entry in a \ref table "class table".
+  struct table_entry {
+    ::std::u16string_view name;
+    decoder_spec spec;
+  };
+
+  /**
+   * \brief Minimal perfect hash table of classes.
+   * \details
+   * The table is computed by the code generator, which knows the full set
+   * of class names up front.
+   * A lookup hashes the name twice: once to select the displacement of its
+   * bucket, once with that displacement as seed to select the entry.
+   * The name of the entry is compared, to reject names that are not in the
+   * table.
+   *
+   * The table refers to, but does not own, its entries and displacements.
+   * Both are expected to have static storage duration.
+   */
+  class table {
+   public:
+    template<::std::size_t N, ::std::size_t M>
+    constexpr table(const ::std::array<table_entry, N>& entries, const ::std::array<::std::uint32_t, M>& displacements) noexcept
+    : entries_(entries.data()),
+      size_(N),
+      displacements_(displacements.data()),
+      buckets_(M)
+    {}
+
+    ///\brief Look up a class.
+    ///\returns The specification of the class, or nullptr if it is not in the table.
+    auto find(::std::u16string_view class_name) const noexcept
+    -> const decoder_spec*;
+
+    /**
+     * \brief Hash function used by the table.
+     * \details
+     * FNV-1a over the UTF-16 code units, starting from an offset basis
+     * that is mixed with the seed, followed by the murmur3 finalizer.
+     * \note The code generator implements the same function, and the two
+     * must be kept in sync.
+     */
+    static auto hash(::std::uint32_t seed, ::std::u16string_view class_name) noexcept
+    -> ::std::uint32_t;
+
+    ///\brief Tables are equal if they refer to the same entries.
+    constexpr auto operator==(const table& y) const noexcept -> bool {
+      return entries_ == y.entries_;
+    }
+
+   private:
+    const table_entry* entries_;
+    ::std::size_t size_;
+    const ::std::uint32_t* displacements_;
+    ::std::size_t buckets_;
+  };
+
  private:
   using factory_map = std::unordered_map<::std::u16string_view, decoder_spec>;
+  /**
+   * \brief Source of classes.
+   * \details
+   * Modules built by the code generator use a table,
+   * modules built from an initializer list use a map.
+   */
+  using layer = std::variant<table, std::shared_ptr<const factory_map>>;
 
  public:
   module() = default;
   module(::std::initializer_list<factory_map::value_type> init);
+  explicit module(table t);
   ~module() noexcept;
 
   auto operator+=(const module& other) -> module&;
@@ -47,7 +118,7 @@ class module {
   ///\brief Tiny forwarder to extract the __class__ function for a given type.
   ///\tparam T the type for which to find the __class__ function.
   template<typename T>
-  static auto __class__() noexcept
+  static constexpr auto __class__() noexcept
   -> class_factory {
     return &T::__class__;
   }
@@ -55,7 +126,7 @@ class module {
   ///\brief Tiny forwarder to extract the __decoder__ function for a given type.
   ///\tparam T the type for which to find the __decoder__ function.
   template<typename T>
-  static auto __decoder__() noexcept
+  static constexpr auto __decoder__() noexcept
   -> decoder_factory {
     return &T::__decoder__;
   }
@@ -64,7 +135,13 @@ class module {
   auto spec_(::std::u16string_view class_name) const
   -> const decoder_spec&;
 
-  factory_map factory_map_;
+  /**
+   * \brief Sources of classes, in order of precedence.
+   * \details
+   * When modules are merged, the layers of the other module are appended,
+   * so classes in this module take precedence over those of the other.
+   */
+  std::vector<layer> layers_;
 };
 
 auto operator+(const module& x, const module& y) -> module;
@@ -32,6 +32,24 @@ class annotation_reader {
   auto read_float() -> ::java::float_t;
   auto read_double() -> ::java::double_t;
   auto read_char() -> ::java::char_t;
+
+  ///\brief Read \p n values into \p out, using a single copy.
+  auto read_booleans(::java::boolean_t* out, ::std::size_t n) -> void;
+  ///\copydoc read_booleans
+  auto read_bytes(::java::byte_t* out, ::std::size_t n) -> void;
+  ///\copydoc read_booleans
+  auto read_shorts(::java::short_t* out, ::std::size_t n) -> void;
+  ///\copydoc read_booleans
+  auto read_ints(::java::int_t* out, ::std::size_t n) -> void;
+  ///\copydoc read_booleans
+  auto read_longs(::java::long_t* out, ::std::size_t n) -> void;
+  ///\copydoc read_booleans
+  auto read_floats(::java::float_t* out, ::std::size_t n) -> void;
+  ///\copydoc read_booleans
+  auto read_doubles(::java::double_t* out, ::std::size_t n) -> void;
+  ///\copydoc read_booleans
+  auto read_chars(::java::char_t* out, ::std::size_t n) -> void;
+
   auto at_end() -> bool;
 
   template<typename T>
@@ -55,6 +73,8 @@ class annotation_reader {
   auto read_comparable_object_() -> ::java::lang::Object;
   auto read_complete_object_() -> ::java::lang::Object;
   auto get_bytes_(void* buf, ::std::size_t n) -> void;
+  template<typename T>
+  auto read_array_(T* out, ::std::size_t n) -> void;
 
   class_decoder_intf& intf_;
   stream::new_object::annotation_vector::const_iterator iter_;
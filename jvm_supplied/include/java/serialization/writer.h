@@ -2,6 +2,7 @@
 #define JAVA_SERIALIZATION_WRITER_H
 
 #include <cstddef>
+#include <cstdint>
 #include <variant>
 #include <vector>
 #include <cycle_ptr/cycle_ptr.h>
@@ -30,6 +31,23 @@ class annotation_writer {
   auto write_double(::java::double_t v) -> void;
   auto write_char(::java::char_t v) -> void;
 
+  ///\brief Write \p n values from \p v, in a single append.
+  auto write_booleans(const ::java::boolean_t* v, ::std::size_t n) -> void;
+  ///\copydoc write_booleans
+  auto write_bytes(const ::java::byte_t* v, ::std::size_t n) -> void;
+  ///\copydoc write_booleans
+  auto write_shorts(const ::java::short_t* v, ::std::size_t n) -> void;
+  ///\copydoc write_booleans
+  auto write_ints(const ::java::int_t* v, ::std::size_t n) -> void;
+  ///\copydoc write_booleans
+  auto write_longs(const ::java::long_t* v, ::std::size_t n) -> void;
+  ///\copydoc write_booleans
+  auto write_floats(const ::java::float_t* v, ::std::size_t n) -> void;
+  ///\copydoc write_booleans
+  auto write_doubles(const ::java::double_t* v, ::std::size_t n) -> void;
+  ///\copydoc write_booleans
+  auto write_chars(const ::java::char_t* v, ::std::size_t n) -> void;
+
   auto write_object(::java::const_ref<::java::lang::Object> v) -> void;
   auto write_object_unshared(::java::const_ref<::java::lang::Object> v) -> void;
 
@@ -45,6 +63,9 @@ class annotation_writer {
 
  private:
   auto write_bytes_(const void* b, ::std::size_t n) -> void;
+  auto reserve_bytes_(::std::size_t n) -> ::std::uint8_t*;
+  template<typename T>
+  auto write_array_(const T* v, ::std::size_t n) -> void;
 
   static const ::std::size_t MAX_BLOCKSIZE;
   cycle_handler& handler_;
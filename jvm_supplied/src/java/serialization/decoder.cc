@@ -1,7 +1,9 @@
 #include <java/serialization/decoder.h>
 #include <java/serialization/exception.h>
 #include <java/serialization/module.h>
+#include <algorithm>
 #include <cassert>
+#include <iterator>
 #include <utility>
 #include <stdexcept>
 #include <java/fwd/java/lang/String.h>
@@ -103,6 +105,37 @@ auto decoder_ctx::decoder(::cycle_ptr::cycle_gptr<const stream::new_class> cls)
   return module_.decoder(::java::_tags::java::lang::Class::u_name(), *this, std::move(cls));
 }
 
+auto decoder_ctx::slots(const ::cycle_ptr::cycle_gptr<const stream::class_desc>& cls, const ::std::u16string_view* slot_names, ::std::size_t slot_count)
+-> const field_slots& {
+  const auto slot_iter = slot_map_.find(slot_key(cls, slot_names));
+  if (slot_iter != slot_map_.end()) {
+    assert(slot_iter->second.size() == slot_count);
+    return slot_iter->second;
+  }
+
+  if (cls == nullptr)
+    throw decoding_error("null class description while decoding object");
+  const stream::new_class_desc__class_desc*const cd =
+      dynamic_cast<const stream::new_class_desc__class_desc*>(cls.get());
+  if (cd == nullptr)
+    throw decoding_error("class description is not a normal class description");
+
+  field_slots result;
+  result.reserve(slot_count);
+  ::std::transform(
+      slot_names, slot_names + slot_count,
+      ::std::back_inserter(result),
+      [cd](::std::u16string_view name) -> ::std::size_t {
+        const auto field_iter = ::std::find_if(
+            cd->info.fields.begin(), cd->info.fields.end(),
+            [name](const stream::field_desc& desc) { return desc.name() == name; });
+        if (field_iter == cd->info.fields.end()) return missing_slot;
+        return field_iter - cd->info.fields.begin();
+      });
+
+  return slot_map_.emplace(slot_key(cls, slot_names), ::std::move(result)).first->second;
+}
+
 auto decoder_ctx::decoder(::cycle_ptr::cycle_gptr<const stream::stream_element> elem)
 -> ::cycle_ptr::cycle_gptr<::java::serialization::decoder> {
   if (elem == nullptr) return decoder(nullptr);
@@ -286,7 +319,7 @@ class_decoder_intf::class_decoder_intf(decoder_ctx& ctx, ::cycle_ptr::cycle_gptr
   field_decoders_(field_decoder_set::allocator_type(*this)),
   data(std::move(data))
 {
-  if (data == nullptr) throw ::std::invalid_argument("null data");
+  if (this->data == nullptr) throw ::std::invalid_argument("null data");
 }
 
 class_decoder_intf::class_decoder_intf(decoder_ctx& ctx, ::cycle_ptr::cycle_gptr<const stream::stream_element> data)
@@ -339,10 +372,11 @@ auto class_decoder_intf::cast_data_(::cycle_ptr::cycle_gptr<const stream::stream
 }
 
 
-basic_class_decoder::basic_class_decoder(class_decoder_intf& intf, cycle_ptr::cycle_gptr<const stream::class_desc> cls, std::u16string_view name)
+basic_class_decoder::basic_class_decoder(class_decoder_intf& intf, cycle_ptr::cycle_gptr<const stream::class_desc> cls, std::u16string_view name, const std::u16string_view* slot_names, std::size_t slot_count)
 : intf_(intf),
   cls_(std::move(cls)),
-  cd_(find_cd_(this->intf_, this->cls_))
+  cd_(find_cd_(this->intf_, this->cls_)),
+  slots_(this->intf_.slots(this->cls_, slot_names, slot_count))
 {
   if (cls_ == nullptr)
     throw decoding_error("null class description while decoding object");
@@ -358,6 +392,16 @@ basic_class_decoder::basic_class_decoder(class_decoder_intf& intf, cycle_ptr::cy
     throw decoding_error("class description for object is a primitive type");
   if (::std::get<std::u16string_view>(cd->class_name.type()) != name)
     throw decoding_error("class description for object is of unexpected type");
+
+  // Slots address fields by their position in the class description.
+  // Decoded class data holds the described fields in order,
+  // so the names were validated when the slot mapping was built.
+  if (!cd_.fields.empty() && cd_.fields.size() != cd->info.fields.size())
+    throw decoding_error("class data does not match its class description");
+  assert(::std::equal(
+          cd_.fields.begin(), cd_.fields.end(),
+          cd->info.fields.begin(),
+          [](const auto& field, const stream::field_desc& desc) { return field.first == desc.name(); }));
 }
 
 basic_class_decoder::~basic_class_decoder() noexcept = default;
@@ -371,42 +415,32 @@ auto basic_class_decoder::find_cd_(const class_decoder_intf& intf, const cycle_p
 
 auto basic_class_decoder::get_field_(::std::u16string_view name) const
 -> const stream::new_object::class_data::field_value* {
-  const auto field_iter = cd_.fields.find(name);
-  if (field_iter == cd_.fields.end()) return nullptr;
-  return &field_iter->second;
+  return cd_.find_field(name);
 }
 
-auto basic_class_decoder::get_initial_field_(::std::u16string_view name) const
--> ::java::lang::Object {
+auto basic_class_decoder::object_value_(const stream::new_object::class_data::field_value* field)
+-> ::cycle_ptr::cycle_gptr<const stream::stream_element> {
   using obj_type = cycle_ptr::cycle_member_ptr<const stream::stream_element>;
 
-  const stream::new_object::class_data::field_value*const field = get_field_(name);
-  if (field != nullptr && !::std::holds_alternative<obj_type>(*field))
+  if (field == nullptr) return nullptr;
+  if (!::std::holds_alternative<obj_type>(*field))
     throw decoding_error("field has incorrect type");
+  return ::std::get<obj_type>(*field);
+}
 
-  return intf_.initial_field(field ? ::std::get<obj_type>(*field) : nullptr);
+auto basic_class_decoder::get_initial_field_(::std::u16string_view name) const
+-> ::java::lang::Object {
+  return intf_.initial_field(object_value_(get_field_(name)));
 }
 
 auto basic_class_decoder::get_comparable_field_(::std::u16string_view name) const
 -> ::java::lang::Object {
-  using obj_type = cycle_ptr::cycle_member_ptr<const stream::stream_element>;
-
-  const stream::new_object::class_data::field_value*const field = get_field_(name);
-  if (field != nullptr && !::std::holds_alternative<obj_type>(*field))
-    throw decoding_error("field has incorrect type");
-
-  return intf_.comparable_field(field ? ::std::get<obj_type>(*field) : nullptr);
+  return intf_.comparable_field(object_value_(get_field_(name)));
 }
 
 auto basic_class_decoder::get_complete_field_(::std::u16string_view name) const
 -> ::java::lang::Object {
-  using obj_type = cycle_ptr::cycle_member_ptr<const stream::stream_element>;
-
-  const stream::new_object::class_data::field_value*const field = get_field_(name);
-  if (field != nullptr && !::std::holds_alternative<obj_type>(*field))
-    throw decoding_error("field has incorrect type");
-
-  return intf_.complete_field(field ? ::std::get<obj_type>(*field) : nullptr);
+  return intf_.complete_field(object_value_(get_field_(name)));
 }
 
 template auto basic_class_decoder::get_primitive_field<::java::boolean_t>(::std::u16string_view name, std::optional<::java::boolean_t> fb) const -> ::java::boolean_t;
@@ -1,9 +1,90 @@
 #include <java/serialization/encdec.h>
 #include <algorithm>
 #include <cassert>
+#include <cstring>
 #include <iomanip>
+#include <type_traits>
+#include <java/serialization/byte_order.h>
 
 namespace java::serialization::stream {
+namespace {
+
+
+///\brief Number of bytes a stream read may allocate ahead of the data.
+constexpr std::size_t read_chunk_size = 64u * 1024u;
+
+/**
+ * \brief Read \p n elements from a stream, appending them to \p vec.
+ * \details
+ * Storage grows with the data actually read,
+ * so a corrupt length fails with insufficient data
+ * instead of allocating the full length up front.
+ */
+template<typename T>
+auto read_chunked_(basic_read_wrapper& read, std::size_t n, std::vector<T>& vec)
+-> void {
+  static_assert(std::is_trivially_copyable_v<T>);
+  constexpr std::size_t chunk_elems = std::max(std::size_t(1), read_chunk_size / sizeof(T));
+
+  while (n > 0u) {
+    const std::size_t off = vec.size();
+    const std::size_t count = std::min(n, chunk_elems);
+    vec.resize(off + count);
+    read(boost::asio::buffer(static_cast<void*>(vec.data() + off), count * sizeof(T)));
+    n -= count;
+  }
+}
+
+///\brief Read \p n bytes, in place if the read wrapper allows, or else into \p tmp.
+auto read_bytes_(basic_read_wrapper& read, std::size_t n, std::vector<std::uint8_t>& tmp)
+-> boost::asio::const_buffer {
+  const std::uint8_t*const in_place = read.contiguous(n);
+  if (in_place != nullptr) return boost::asio::const_buffer(in_place, n);
+
+  tmp.clear();
+  read_chunked_(read, n, tmp);
+  return boost::asio::buffer(tmp);
+}
+
+/**
+ * \brief Decode \p size primitives into \p vec, as a single bulk read.
+ * \details
+ * Except for booleans, the wire bytes are copied straight into the storage
+ * of \p vec and byte swapped in place.
+ * The size is never trusted for allocation before the data has been seen.
+ * \tparam Wire Integral type with the size of the primitive on the wire.
+ */
+template<typename Wire, typename Vector>
+auto read_primitive_array_(basic_read_wrapper& read, std::uint32_t size, Vector& vec)
+-> void {
+  using value_type = typename Vector::value_type;
+  const std::size_t n = std::size_t(size) * sizeof(Wire);
+
+  if constexpr(std::is_same_v<bool, value_type>) {
+    std::vector<std::uint8_t> tmp;
+    const boost::asio::const_buffer bytes = read_bytes_(read, n, tmp);
+    const std::uint8_t* src = static_cast<const std::uint8_t*>(bytes.data());
+
+    vec.resize(size);
+    for (auto&& elem : vec) elem = (*src++ != 0u);
+  } else {
+    static_assert(sizeof(Wire) == sizeof(value_type));
+
+    // Only size the vector once the data is known to be present.
+    const std::uint8_t*const in_place = read.contiguous(n);
+    if (in_place != nullptr) {
+      vec.resize(size);
+      std::memcpy(vec.data(), in_place, n);
+    } else {
+      vec.clear();
+      read_chunked_(read, size, vec);
+    }
+    big_to_native_inplace_n<value_type>(vec.data(), vec.size());
+  }
+}
+
+
+} /* namespace java::serialization::stream::<unnamed> */
 
 
 auto operator==(const stream_element& x, const stream_element& y)
@@ -33,7 +114,7 @@ auto stream_string::decode(reader& r, basic_read_wrapper& read, std::uint8_t hdr
 -> cycle_ptr::cycle_gptr<const stream_string> {
   using boost::asio::buffer;
 
-  std::vector<std::uint8_t> data_buffer;
+  std::uint64_t len;
   switch (hdr) {
     default:
       throw std::invalid_argument("hdr");
@@ -50,7 +131,7 @@ auto stream_string::decode(reader& r, basic_read_wrapper& read, std::uint8_t hdr
         read(buffer(buf));
 
         boost::asio::const_buffer rbuf = buffer(buf);
-        data_buffer.resize(read_utf_len(rbuf));
+        len = read_utf_len(rbuf);
         assert(rbuf.size() == 0u); // All bytes consumed by read_utf_len.
       }
       break;
@@ -60,16 +141,18 @@ auto stream_string::decode(reader& r, basic_read_wrapper& read, std::uint8_t hdr
         read(buffer(buf));
 
         boost::asio::const_buffer rbuf = buffer(buf);
-        data_buffer.resize(read_long_utf_len(rbuf));
+        len = read_long_utf_len(rbuf);
         assert(rbuf.size() == 0u); // All bytes consumed by read_utf_len.
       }
       break;
   }
-  read(buffer(data_buffer));
+  std::vector<std::uint8_t> data_buffer;
+  const boost::asio::const_buffer data = read_bytes_(read, len, data_buffer);
 
   auto result = cycle_ptr::allocate_cycle<stream_string>(r.get_allocator(), r.get_allocator());
   r.next_handle(result);
-  read_utf_data(buffer(data_buffer), std::back_inserter(*result));
+  result->reserve(len);
+  read_utf_data(data, std::back_inserter(*result));
   return result;
 }
 
@@ -97,38 +180,46 @@ auto stream_string::decode(reader& r, basic_read_wrapper& read)
 auto stream_string::read_utf(basic_read_wrapper& read) -> stream_string {
   using boost::asio::buffer;
 
-  std::vector<std::uint8_t> data_buffer;
+  std::uint64_t len;
   {
     std::uint8_t buf[2];
     read(buffer(buf));
 
     boost::asio::const_buffer rbuf = buffer(buf);
-    data_buffer.resize(read_utf_len(rbuf));
+    len = read_utf_len(rbuf);
     assert(rbuf.size() == 0u); // All bytes consumed by read_utf_len.
   }
 
-  read(buffer(data_buffer));
+  // Only reserve once the data is known to be present.
+  std::vector<std::uint8_t> data_buffer;
+  const boost::asio::const_buffer data = read_bytes_(read, len, data_buffer);
+
   stream_string result;
-  read_utf_data(buffer(data_buffer), std::back_inserter(result));
+  result.reserve(len);
+  read_utf_data(data, std::back_inserter(result));
   return result;
 }
 
 auto stream_string::read_long_utf(basic_read_wrapper& read) -> stream_string {
   using boost::asio::buffer;
 
-  std::vector<std::uint8_t> data_buffer;
+  std::uint64_t len;
   {
     std::uint8_t buf[8];
     read(buffer(buf));
 
     boost::asio::const_buffer rbuf = buffer(buf);
-    data_buffer.resize(read_long_utf_len(rbuf));
+    len = read_long_utf_len(rbuf);
     assert(rbuf.size() == 0u); // All bytes consumed by read_long_utf_len.
   }
 
-  read(buffer(data_buffer));
+  // Only reserve once the data is known to be present.
+  std::vector<std::uint8_t> data_buffer;
+  const boost::asio::const_buffer data = read_bytes_(read, len, data_buffer);
+
   stream_string result;
-  read_utf_data(buffer(data_buffer), std::back_inserter(result));
+  result.reserve(len);
+  read_utf_data(data, std::back_inserter(result));
   return result;
 }
 
@@ -279,28 +370,29 @@ auto blockdata::decode([[maybe_unused]] reader& r, basic_read_wrapper& read, std
   using boost::asio::buffer;
   using boost::endian::big_to_native;
 
-  blockdata result;
-
+  std::uint32_t len;
   switch (hdr) {
     default:
       throw std::invalid_argument("hdr");
     case TC_BLOCKDATA:
       {
-        std::uint8_t len;
-        read(buffer(&len, sizeof(len)));
-        result.resize(big_to_native(len));
+        std::uint8_t short_len;
+        read(buffer(&short_len, sizeof(short_len)));
+        len = big_to_native(short_len);
       }
       break;
     case TC_BLOCKDATALONG:
-      {
-        std::uint32_t len;
-        read(buffer(&len, sizeof(len)));
-        result.resize(big_to_native(len));
-      }
+      read(buffer(&len, sizeof(len)));
+      len = big_to_native(len);
       break;
   }
 
-  read(buffer(result));
+  blockdata result;
+  const std::uint8_t*const in_place = read.contiguous(len);
+  if (in_place != nullptr)
+    result.assign(in_place, in_place + len);
+  else
+    read_chunked_(read, len, result);
   return result;
 }
 
@@ -850,7 +942,7 @@ auto new_object::decode(reader& r, basic_read_wrapper& read, std::uint8_t hdr)
     std::tie(std::ignore, inserted) = result->data.emplace(
         std::piecewise_construct,
         std::make_tuple(type),
-        std::forward_as_tuple(std::move(fields), std::move(annotation)));
+        std::forward_as_tuple(class_data::decoded_fields, std::move(fields), std::move(annotation)));
 
     // Insert should never fail, as class diagrams can't recurse,
     // and the code doesn't allow class references to be used until
@@ -1488,89 +1580,49 @@ auto new_array::decode(reader& r, basic_read_wrapper& read, std::uint8_t hdr)
       case primitive_type::byte_type:
         {
           result->data.template emplace<byte_array>(r.get_allocator());
-          auto& vec = std::get<byte_array>(result->data);
-          vec.reserve(size);
-          std::generate_n(
-              std::back_inserter(vec),
-              size,
-              [&r, &read]() { return std::get<std::int8_t>(primitive_desc::decode_field(primitive_type::byte_type, r, read)); });
+          read_primitive_array_<std::int8_t>(read, size, std::get<byte_array>(result->data));
         }
         break;
       case primitive_type::char_type:
         {
           result->data.template emplace<char_array>(r.get_allocator());
-          auto& vec = std::get<char_array>(result->data);
-          vec.reserve(size);
-          std::generate_n(
-              std::back_inserter(vec),
-              size,
-              [&r, &read]() { return std::get<char16_t>(primitive_desc::decode_field(primitive_type::char_type, r, read)); });
+          read_primitive_array_<std::uint16_t>(read, size, std::get<char_array>(result->data));
         }
         break;
       case primitive_type::double_type:
         {
           result->data.template emplace<double_array>(r.get_allocator());
-          auto& vec = std::get<double_array>(result->data);
-          vec.reserve(size);
-          std::generate_n(
-              std::back_inserter(vec),
-              size,
-              [&r, &read]() { return std::get<double>(primitive_desc::decode_field(primitive_type::double_type, r, read)); });
+          read_primitive_array_<std::uint64_t>(read, size, std::get<double_array>(result->data));
         }
         break;
       case primitive_type::float_type:
         {
           result->data.template emplace<float_array>(r.get_allocator());
-          auto& vec = std::get<float_array>(result->data);
-          vec.reserve(size);
-          std::generate_n(
-              std::back_inserter(vec),
-              size,
-              [&r, &read]() { return std::get<float>(primitive_desc::decode_field(primitive_type::float_type, r, read)); });
+          read_primitive_array_<std::uint32_t>(read, size, std::get<float_array>(result->data));
         }
         break;
       case primitive_type::int_type:
         {
           result->data.template emplace<int_array>(r.get_allocator());
-          auto& vec = std::get<int_array>(result->data);
-          vec.reserve(size);
-          std::generate_n(
-              std::back_inserter(vec),
-              size,
-              [&r, &read]() { return std::get<std::int32_t>(primitive_desc::decode_field(primitive_type::int_type, r, read)); });
+          read_primitive_array_<std::int32_t>(read, size, std::get<int_array>(result->data));
         }
         break;
       case primitive_type::long_type:
         {
           result->data.template emplace<long_array>(r.get_allocator());
-          auto& vec = std::get<long_array>(result->data);
-          vec.reserve(size);
-          std::generate_n(
-              std::back_inserter(vec),
-              size,
-              [&r, &read]() { return std::get<std::int64_t>(primitive_desc::decode_field(primitive_type::long_type, r, read)); });
+          read_primitive_array_<std::int64_t>(read, size, std::get<long_array>(result->data));
         }
         break;
       case primitive_type::short_type:
         {
           result->data.template emplace<short_array>(r.get_allocator());
-          auto& vec = std::get<short_array>(result->data);
-          vec.reserve(size);
-          std::generate_n(
-              std::back_inserter(vec),
-              size,
-              [&r, &read]() { return std::get<std::int16_t>(primitive_desc::decode_field(primitive_type::short_type, r, read)); });
+          read_primitive_array_<std::int16_t>(read, size, std::get<short_array>(result->data));
         }
         break;
       case primitive_type::boolean_type:
         {
           result->data.template emplace<bool_array>(r.get_allocator());
-          auto& vec = std::get<bool_array>(result->data);
-          vec.reserve(size);
-          std::generate_n(
-              std::back_inserter(vec),
-              size,
-              [&r, &read]() { return std::get<bool>(primitive_desc::decode_field(primitive_type::boolean_type, r, read)); });
+          read_primitive_array_<std::uint8_t>(read, size, std::get<bool_array>(result->data));
         }
         break;
     }
@@ -0,0 +1,68 @@
+#include <java/serialization/mapped_file.h>
+#include <cerrno>
+#include <system_error>
+
+#if __has_include(<sys/mman.h>) && __has_include(<unistd.h>)
+# define JSER_HAVE_MMAP 1
+# include <fcntl.h>
+# include <sys/mman.h>
+# include <sys/stat.h>
+# include <unistd.h>
+#else
+# include <fstream>
+# include <iterator>
+#endif
+
+namespace java::serialization {
+
+
+#if JSER_HAVE_MMAP
+mapped_file::mapped_file(const std::string& filename) {
+  const int fd = ::open(filename.c_str(), O_RDONLY | O_CLOEXEC);
+  if (fd == -1)
+    throw std::system_error(errno, std::generic_category(), "open " + filename);
+
+  struct ::stat st;
+  if (::fstat(fd, &st) == -1) {
+    const int e = errno;
+    ::close(fd);
+    throw std::system_error(e, std::generic_category(), "stat " + filename);
+  }
+
+  size_ = static_cast<std::size_t>(st.st_size);
+  if (size_ > 0) {
+    void*const addr = ::mmap(nullptr, size_, PROT_READ, MAP_PRIVATE, fd, 0);
+    if (addr == MAP_FAILED) {
+      const int e = errno;
+      ::close(fd);
+      throw std::system_error(e, std::generic_category(), "mmap " + filename);
+    }
+
+    // Decoding walks the file front to back.
+    ::madvise(addr, size_, MADV_SEQUENTIAL);
+    data_ = static_cast<const std::uint8_t*>(addr);
+  }
+
+  ::close(fd); // The mapping remains valid after the descriptor is closed.
+}
+
+mapped_file::~mapped_file() noexcept {
+  if (data_ != nullptr && fallback_.empty())
+    ::munmap(const_cast<std::uint8_t*>(data_), size_);
+}
+#else
+mapped_file::mapped_file(const std::string& filename) {
+  std::ifstream file(filename, std::ifstream::in | std::ifstream::binary);
+  if (!file)
+    throw std::system_error(std::make_error_code(std::errc::no_such_file_or_directory), "open " + filename);
+
+  fallback_.assign(std::istreambuf_iterator<char>(file), std::istreambuf_iterator<char>());
+  data_ = fallback_.data();
+  size_ = fallback_.size();
+}
+
+mapped_file::~mapped_file() noexcept = default;
+#endif
+
+
+} /* namespace java::serialization */
@@ -1,29 +1,71 @@
 #include <java/serialization/module.h>
 #include <java/serialization/exception.h>
+#include <algorithm>
 #include <cassert>
 #include <functional>
+#include <iterator>
+#include <type_traits>
 
 namespace java::serialization {
 
 
+auto module::table::find(::std::u16string_view class_name) const noexcept
+-> const decoder_spec* {
+  if (size_ == 0) return nullptr;
+
+  const ::std::uint32_t displacement = displacements_[hash(0, class_name) % buckets_];
+  const table_entry& entry = entries_[hash(displacement, class_name) % size_];
+  if (entry.name != class_name) return nullptr;
+  return &entry.spec;
+}
+
+auto module::table::hash(::std::uint32_t seed, ::std::u16string_view class_name) noexcept
+-> ::std::uint32_t {
+  ::std::uint32_t h = 0x811c9dc5u ^ seed;
+  for (const char16_t c : class_name) {
+    h ^= ::std::uint32_t(c);
+    h *= 0x01000193u;
+  }
+
+  h ^= h >> 16;
+  h *= 0x85ebca6bu;
+  h ^= h >> 13;
+  h *= 0xc2b2ae35u;
+  h ^= h >> 16;
+  return h;
+}
+
+
 module::module(::std::initializer_list<factory_map::value_type> init)
-: factory_map_(std::move(init))
-{}
+{
+  layers_.emplace_back(::std::make_shared<const factory_map>(std::move(init)));
+}
+
+module::module(table t)
+{
+  layers_.emplace_back(std::move(t));
+}
 
 module::~module() noexcept = default;
 
 auto module::operator+=(const module& other) -> module& {
-  factory_map_.insert(other.factory_map_.begin(), other.factory_map_.end());
+  // Tables are shared between copies of a module,
+  // so merging the same module twice doesn't grow the lookup chain.
+  ::std::copy_if(
+      other.layers_.begin(), other.layers_.end(),
+      ::std::back_inserter(layers_),
+      [this](const layer& l) {
+        return ::std::find(layers_.begin(), layers_.end(), l) == layers_.end();
+      });
   return *this;
 }
 
 auto module::operator+=(module&& other) -> module& {
-#if __has_cpp_attribute(__cpp_lib_node_extract) >= 201606
-  factory_map_.merge(std::move(other.factory_map_));
-#else
-  factory_map_.insert(other.factory_map_.begin(), other.factory_map_.end());
-#endif
-  return *this;
+  if (layers_.empty()) {
+    layers_ = std::move(other.layers_);
+    return *this;
+  }
+  return *this += static_cast<const module&>(other);
 }
 
 auto module::decoder(
@@ -65,15 +107,25 @@ auto module::spec_(::std::u16string_view class_name) const
       std::codecvt_utf8_utf16<char16_t>,
       char16_t>;
 
-  const auto found = factory_map_.find(class_name);
-  if (found == factory_map_.end()) {
-    conversion_type conversion;
-    throw ::java::serialization::decoding_error("class "
-        + conversion.to_bytes(class_name.data(), class_name.data() + class_name.size())
-        + " not found in module");
+  for (const layer& l : layers_) {
+    const decoder_spec*const found = ::std::visit(
+        [class_name](const auto& source) -> const decoder_spec* {
+          if constexpr(::std::is_same_v<table, ::std::decay_t<decltype(source)>>) {
+            return source.find(class_name);
+          } else {
+            const auto iter = source->find(class_name);
+            if (iter == source->end()) return nullptr;
+            return &iter->second;
+          }
+        },
+        l);
+    if (found != nullptr) return *found;
   }
 
-  return found->second;
+  conversion_type conversion;
+  throw ::java::serialization::decoding_error("class "
+      + conversion.to_bytes(class_name.data(), class_name.data() + class_name.size())
+      + " not found in module");
 }
 
 auto operator+(const module& x, const module& y) -> module {
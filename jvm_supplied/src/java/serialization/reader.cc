@@ -3,10 +3,19 @@
 #include <cstring>
 #include <variant>
 #include <boost/endian/conversion.hpp>
+#include <java/serialization/byte_order.h>
 #include <java/serialization/decoder.h>
 
 namespace java::serialization {
 
+///\brief Bulk read, byte swapping in the output buffer.
+template<typename T>
+auto annotation_reader::read_array_(T* out, ::std::size_t n)
+-> void {
+  get_bytes_(out, n * sizeof(T));
+  big_to_native_inplace_n<T>(out, n);
+}
+
 auto annotation_reader::read_boolean()
 -> ::java::boolean_t {
   ::std::uint8_t buf;
@@ -71,6 +80,55 @@ auto annotation_reader::read_double()
   return v;
 }
 
+auto annotation_reader::read_char()
+-> ::java::char_t {
+  ::java::char_t buf;
+  get_bytes_(&buf, sizeof(buf));
+  ::boost::endian::big_to_native_inplace(buf);
+  return buf;
+}
+
+auto annotation_reader::read_booleans(::java::boolean_t* out, ::std::size_t n)
+-> void {
+  for (::std::size_t i = 0; i < n; ++i)
+    out[i] = read_boolean();
+}
+
+auto annotation_reader::read_bytes(::java::byte_t* out, ::std::size_t n)
+-> void {
+  read_array_(out, n);
+}
+
+auto annotation_reader::read_shorts(::java::short_t* out, ::std::size_t n)
+-> void {
+  read_array_(out, n);
+}
+
+auto annotation_reader::read_ints(::java::int_t* out, ::std::size_t n)
+-> void {
+  read_array_(out, n);
+}
+
+auto annotation_reader::read_longs(::java::long_t* out, ::std::size_t n)
+-> void {
+  read_array_(out, n);
+}
+
+auto annotation_reader::read_floats(::java::float_t* out, ::std::size_t n)
+-> void {
+  read_array_(out, n);
+}
+
+auto annotation_reader::read_doubles(::java::double_t* out, ::std::size_t n)
+-> void {
+  read_array_(out, n);
+}
+
+auto annotation_reader::read_chars(::java::char_t* out, ::std::size_t n)
+-> void {
+  read_array_(out, n);
+}
+
 auto annotation_reader::at_end()
 -> bool {
   ::cycle_ptr::cycle_gptr<stream::stream_element> result;
@@ -159,6 +217,7 @@ auto annotation_reader::get_bytes_(void* buf, ::std::size_t n)
               ::std::memcpy(buf, elem.data() + off, rlen);
               buf = reinterpret_cast<::std::uint8_t*>(buf) + rlen;
               n -= rlen;
+              off += rlen;
             }
           }
         },
@@ -2,10 +2,21 @@
 #include <cstring>
 #include <cstdint>
 #include <boost/endian/conversion.hpp>
+#include <java/serialization/byte_order.h>
 #include <java/serialization/type_def.h>
 
 namespace java::serialization {
 
+///\brief Bulk write, byte swapping in the output buffer.
+template<typename T>
+auto annotation_writer::write_array_(const T* v, ::std::size_t n) -> void {
+  if (n == 0u) return;
+
+  ::std::uint8_t*const out = reserve_bytes_(n * sizeof(T));
+  ::std::memcpy(out, v, n * sizeof(T));
+  native_to_big_inplace_n<T>(out, n);
+}
+
 auto annotation_writer::write_boolean(::java::boolean_t v) -> void {
   ::boost::endian::native_to_big_inplace(v);
   write_bytes_(&v, sizeof(v));
@@ -62,25 +73,68 @@ auto annotation_writer::write_object_unshared(::java::const_ref<::java::lang::Ob
   data_.emplace_back(handler_.encode_field_unshared(v));
 }
 
+auto annotation_writer::write_booleans(const ::java::boolean_t* v, ::std::size_t n) -> void {
+  ::std::uint8_t*const out = reserve_bytes_(n);
+  for (::std::size_t i = 0; i < n; ++i)
+    out[i] = (v[i] ? 1u : 0u);
+}
+
+auto annotation_writer::write_bytes(const ::java::byte_t* v, ::std::size_t n) -> void {
+  write_array_(v, n);
+}
+
+auto annotation_writer::write_shorts(const ::java::short_t* v, ::std::size_t n) -> void {
+  write_array_(v, n);
+}
+
+auto annotation_writer::write_ints(const ::java::int_t* v, ::std::size_t n) -> void {
+  write_array_(v, n);
+}
+
+auto annotation_writer::write_longs(const ::java::long_t* v, ::std::size_t n) -> void {
+  write_array_(v, n);
+}
+
+auto annotation_writer::write_floats(const ::java::float_t* v, ::std::size_t n) -> void {
+  write_array_(v, n);
+}
+
+auto annotation_writer::write_doubles(const ::java::double_t* v, ::std::size_t n) -> void {
+  write_array_(v, n);
+}
+
+auto annotation_writer::write_chars(const ::java::char_t* v, ::std::size_t n) -> void {
+  write_array_(v, n);
+}
+
 auto annotation_writer::write_bytes_(const void* b, ::std::size_t n) -> void {
+  if (n != 0u) ::std::memcpy(reserve_bytes_(n), b, n);
+}
+
+/**
+ * \brief Append \p n uninitialized bytes to the annotation.
+ * \details
+ * The bytes are appended to the last block, unless that would grow it past
+ * MAX_BLOCKSIZE, in which case a new block is started.
+ * \returns Pointer to the appended bytes, valid until the next write.
+ */
+auto annotation_writer::reserve_bytes_(::std::size_t n) -> ::std::uint8_t* {
   if (data_.empty())
     data_.emplace_back(::std::in_place_type<::java::serialization::stream::blockdata>);
 
-  const ::std::uint8_t*const iter_b = reinterpret_cast<const ::std::uint8_t*>(b);
-  const ::std::uint8_t*const iter_e = iter_b + n;
-  ::std::visit(
-      [&](auto& elem) {
-        bool append;
+  return ::std::visit(
+      [&](auto& elem) -> ::std::uint8_t* {
         if constexpr(std::is_same_v<::java::serialization::stream::blockdata, std::decay_t<decltype(elem)>>) {
-          append = (!elem.empty() && elem.size() + n > MAX_BLOCKSIZE);
-          if (!append)
-            elem.insert(elem.end(), iter_b, iter_e);
-        } else {
-          append = true;
+          if (elem.empty() || elem.size() + n <= MAX_BLOCKSIZE) {
+            const ::std::size_t off = elem.size();
+            elem.resize(off + n);
+            return elem.data() + off;
+          }
         }
 
-        if (append)
-          data_.emplace_back(::std::in_place_type<::java::serialization::stream::blockdata>, iter_b, iter_e);
+        auto& block = ::std::get<::java::serialization::stream::blockdata>(
+            data_.emplace_back(::std::in_place_type<::java::serialization::stream::blockdata>, n));
+        return block.data();
       },
       data_.back());
 }
@@ -0,0 +1,180 @@
+#include <java/serialization/reader.h>
+#include <java/serialization/writer.h>
+#include <java/serialization/decoder.h>
+#include <java/serialization/module.h>
+#include <java/serialization/type_def.h>
+#include "UnitTest++/UnitTest++.h"
+#include <array>
+#include <cstddef>
+#include <numeric>
+#include <tuple>
+#include <utility>
+#include <variant>
+#include <cycle_ptr/cycle_ptr.h>
+
+using namespace java::serialization;
+
+namespace {
+
+// Decoder for the object holding the annotation.
+// The tests only read primitives, so it never constructs anything.
+class annotation_decoder
+: public class_decoder_intf
+{
+ public:
+  using class_decoder_intf::class_decoder_intf;
+
+ private:
+  auto init() -> ::java::lang::Object override {
+    return nullptr;
+  }
+};
+
+// Place the annotation written by w in an object description.
+auto make_object(const annotation_writer& w)
+-> cycle_ptr::cycle_gptr<const stream::new_object> {
+  const auto cls = cycle_ptr::make_cycle<stream::new_class_desc__class_desc>();
+  cls->class_name = stream::field_descriptor(u"SerAnnotation");
+  cls->info.flags = stream::SC_SERIALIZABLE | stream::SC_WRITE_METHOD;
+
+  const auto obj = cycle_ptr::make_cycle<stream::new_object>();
+  obj->cls = cls;
+  obj->data.emplace(
+      std::piecewise_construct,
+      std::forward_as_tuple(cls),
+      std::forward_as_tuple(stream::new_object::field_initializer_list{}, w.data()));
+  return obj;
+}
+
+auto block_count(const annotation_writer& w)
+-> std::size_t {
+  std::size_t count = 0;
+  for (const auto& elem : w.data())
+    if (std::holds_alternative<stream::blockdata>(elem)) ++count;
+  return count;
+}
+
+} /* namespace <unnamed> */
+
+TEST(single_values_share_one_block) {
+  cycle_handler handler;
+  annotation_writer w(handler);
+  w.write_int(1);
+  w.write_int(2);
+  w.write_short(3);
+  w.write_long(-4);
+  w.write_double(5.5);
+  w.write_boolean(true);
+  w.write_char(u'x');
+  w.write_float(-7.25f);
+  w.write_byte(8);
+  REQUIRE CHECK_EQUAL(1u, block_count(w));
+
+  const auto obj = make_object(w);
+  module m;
+  decoder_ctx ctx(m);
+  const auto dec = cycle_ptr::make_cycle<annotation_decoder>(ctx, obj);
+  annotation_reader r(*dec, obj->data.begin()->second.annotation);
+
+  // Successive reads must continue where the previous one stopped.
+  CHECK_EQUAL(1, r.read_int());
+  CHECK_EQUAL(2, r.read_int());
+  CHECK_EQUAL(3, r.read_short());
+  CHECK_EQUAL(-4, r.read_long());
+  CHECK_EQUAL(5.5, r.read_double());
+  CHECK_EQUAL(true, r.read_boolean());
+  CHECK(r.read_char() == u'x');
+  CHECK_EQUAL(-7.25f, r.read_float());
+  CHECK_EQUAL(8, r.read_byte());
+  CHECK(r.at_end());
+  CHECK_THROW(r.read_int(), decoding_error);
+}
+
+TEST(bulk_round_trip) {
+  // Large enough for the ints to span several blocks.
+  std::array<::java::int_t, 1000> ints;
+  std::iota(ints.begin(), ints.end(), -500);
+  const std::array<::java::boolean_t, 5> booleans{ true, false, false, true, true };
+  const std::array<::java::byte_t, 3> bytes{ -1, 0, 127 };
+  const std::array<::java::short_t, 3> shorts{ -2, 0x1234, 32767 };
+  const std::array<::java::long_t, 3> longs{ -3, 0x0123456789abcdefll, 1 };
+  const std::array<::java::float_t, 3> floats{ -1.5f, 0.0f, 3.25f };
+  const std::array<::java::double_t, 3> doubles{ -2.5, 1e100, 0.125 };
+  const std::array<::java::char_t, 3> chars{ u'a', u'\u00e9', u'\uffff' };
+
+  cycle_handler handler;
+  annotation_writer w(handler);
+  w.write_ints(ints.data(), ints.size());
+  w.write_booleans(booleans.data(), booleans.size());
+  w.write_bytes(bytes.data(), bytes.size());
+  w.write_shorts(shorts.data(), shorts.size());
+  w.write_longs(longs.data(), longs.size());
+  w.write_floats(floats.data(), floats.size());
+  w.write_doubles(doubles.data(), doubles.size());
+  w.write_chars(chars.data(), chars.size());
+  w.write_int(42);
+  REQUIRE CHECK(block_count(w) > 1u);
+
+  const auto obj = make_object(w);
+  module m;
+  decoder_ctx ctx(m);
+  const auto dec = cycle_ptr::make_cycle<annotation_decoder>(ctx, obj);
+  annotation_reader r(*dec, obj->data.begin()->second.annotation);
+
+  std::array<::java::int_t, 1000> ints_out;
+  r.read_ints(ints_out.data(), ints_out.size());
+  CHECK_ARRAY_EQUAL(ints, ints_out, ints.size());
+
+  std::array<::java::boolean_t, 5> booleans_out;
+  r.read_booleans(booleans_out.data(), booleans_out.size());
+  CHECK_ARRAY_EQUAL(booleans, booleans_out, booleans.size());
+
+  // Bulk writes are readable one value at a time.
+  for (const auto b : bytes)
+    CHECK_EQUAL(b, r.read_byte());
+  for (const auto s : shorts)
+    CHECK_EQUAL(s, r.read_short());
+
+  std::array<::java::long_t, 3> longs_out;
+  r.read_longs(longs_out.data(), longs_out.size());
+  CHECK_ARRAY_EQUAL(longs, longs_out, longs.size());
+
+  std::array<::java::float_t, 3> floats_out;
+  r.read_floats(floats_out.data(), floats_out.size());
+  CHECK_ARRAY_EQUAL(floats, floats_out, floats.size());
+
+  std::array<::java::double_t, 3> doubles_out;
+  r.read_doubles(doubles_out.data(), doubles_out.size());
+  CHECK_ARRAY_EQUAL(doubles, doubles_out, doubles.size());
+
+  std::array<::java::char_t, 3> chars_out;
+  r.read_chars(chars_out.data(), chars_out.size());
+  CHECK(chars == chars_out);
+
+  CHECK_EQUAL(42, r.read_int());
+  CHECK(r.at_end());
+}
+
+TEST(bulk_read_of_single_writes) {
+  cycle_handler handler;
+  annotation_writer w(handler);
+  for (::java::short_t i = 0; i < 600; ++i)
+    w.write_short(i);
+
+  const auto obj = make_object(w);
+  module m;
+  decoder_ctx ctx(m);
+  const auto dec = cycle_ptr::make_cycle<annotation_decoder>(ctx, obj);
+  annotation_reader r(*dec, obj->data.begin()->second.annotation);
+
+  std::array<::java::short_t, 600> expect;
+  std::iota(expect.begin(), expect.end(), ::java::short_t(0));
+  std::array<::java::short_t, 600> shorts_out;
+  r.read_shorts(shorts_out.data(), shorts_out.size());
+  CHECK_ARRAY_EQUAL(expect, shorts_out, expect.size());
+  CHECK(r.at_end());
+}
+
+int main() {
+  return UnitTest::RunAllTests();
+}
@@ -0,0 +1,110 @@
+#include <java/serialization/encdec.h>
+#include <java/serialization/exception.h>
+#include <java/serialization/mapped_file.h>
+#include "UnitTest++/UnitTest++.h"
+#include <cstdint>
+#include <fstream>
+#include <iostream>
+#include <sstream>
+#include <string>
+#include <boost/asio/buffer.hpp>
+#include <cycle_ptr/cycle_ptr.h>
+
+using namespace java::serialization;
+
+std::string SER_FILE_PATH;
+
+namespace {
+
+auto same_content(const stream::reader::content_type& x, const stream::reader::content_type& y)
+-> bool {
+  if (x.is_exception() != y.is_exception()) return false;
+  if (x.is_blockdata() && y.is_blockdata()) return x.as_blockdata() == y.as_blockdata();
+  if (x.is_object() && y.is_object()) {
+    const auto x_ptr = x.as_object();
+    const auto y_ptr = y.as_object();
+    if (x_ptr == nullptr || y_ptr == nullptr) return x_ptr == y_ptr;
+    return *x_ptr == *y_ptr;
+  }
+  return false;
+}
+
+// Stream header, followed by the given content.
+auto make_stream(std::initializer_list<std::uint8_t> content)
+-> std::string {
+  std::string s{ '\xac', '\xed', '\x00', '\x05' };
+  for (const auto c : content) s.push_back(static_cast<char>(c));
+  return s;
+}
+
+} /* namespace <unnamed> */
+
+TEST(mapped_file_matches_stream) {
+  mapped_file file(SER_FILE_PATH);
+  REQUIRE CHECK(file.size() > 0u);
+  boost::asio::const_buffer buf = file.buffer();
+
+  std::ifstream stream(SER_FILE_PATH, std::ifstream::in | std::ifstream::binary);
+
+  stream::reader mapped_reader;
+  stream::reader stream_reader;
+  std::size_t count = 0;
+  while (buf.size() > 0u) {
+    const auto mapped_obj = mapped_reader.read(buf);
+    const auto stream_obj = stream_reader.read(stream);
+    std::cout << mapped_obj << std::endl;
+    CHECK(same_content(mapped_obj, stream_obj));
+    ++count;
+  }
+  CHECK(count > 0u);
+  CHECK(stream.peek() == std::ifstream::traits_type::eof());
+}
+
+TEST(corrupt_long_string_length) {
+  // TC_LONGSTRING with a length far beyond the data.
+  const std::string bytes = make_stream({ 0x7c, 0x7f, 0xff, 0xff, 0xff, 0xff, 0xff, 0xff, 0xff, 'x' });
+
+  boost::asio::const_buffer buf(bytes.data(), bytes.size());
+  stream::reader mapped_reader;
+  CHECK_THROW(mapped_reader.read(buf), decoding_error);
+
+  std::istringstream stream(bytes);
+  stream::reader stream_reader;
+  CHECK_THROW(stream_reader.read(stream), decoding_error);
+}
+
+TEST(corrupt_long_utf_length) {
+  // Long UTF length far beyond the data.
+  const std::string bytes{ '\x7f', '\xff', '\xff', '\xff', '\xff', '\xff', '\xff', '\xff', 'x' };
+
+  boost::asio::const_buffer buf(bytes.data(), bytes.size());
+  auto mapped_read = stream::read_wrapper(buf);
+  CHECK_THROW(stream::stream_string::read_long_utf(mapped_read), decoding_error);
+
+  std::istringstream stream(bytes);
+  auto stream_read = stream::read_wrapper(stream);
+  CHECK_THROW(stream::stream_string::read_long_utf(stream_read), decoding_error);
+}
+
+TEST(corrupt_blockdata_length) {
+  // TC_BLOCKDATALONG with a length far beyond the data.
+  const std::string bytes = make_stream({ 0x7a, 0xff, 0xff, 0xff, 0xff, 'x' });
+
+  boost::asio::const_buffer buf(bytes.data(), bytes.size());
+  stream::reader mapped_reader;
+  CHECK_THROW(mapped_reader.read(buf), decoding_error);
+
+  std::istringstream stream(bytes);
+  stream::reader stream_reader;
+  CHECK_THROW(stream_reader.read(stream), decoding_error);
+}
+
+int main(int argc, char** argv) {
+  if (argc != 2) {
+    std::cerr << "Require argument: path to a serialized file\n";
+    return 1;
+  }
+  SER_FILE_PATH = argv[1];
+
+  return UnitTest::RunAllTests();
+}
@@ -2,6 +2,7 @@
 #include "UnitTest++/UnitTest++.h"
 #include <iostream>
 #include <fstream>
+#include <sstream>
 #include <string>
 #include <memory>
 #include <iostream>
@@ -41,6 +42,52 @@ TEST(deserialize) {
   CHECK_EQUAL(stream_string(u"bar"), *element_ptr);
 }
 
+TEST(reference_across_reset) {
+  // "foo", TC_RESET, then a back reference to the handle of "foo".
+  std::istringstream file(std::string{
+      '\xac', '\xed', '\x00', '\x05',
+      '\x74', '\x00', '\x03', 'f', 'o', 'o',
+      '\x79',
+      '\x71', '\x00', '\x7e', '\x00', '\x00' });
+
+  reader r;
+  auto deser_obj = r.read(file);
+  REQUIRE CHECK(deser_obj.is_object());
+  CHECK_THROW(r.read(file), java::serialization::decoding_error);
+}
+
+TEST(deserialize_unseekable) {
+  // Stream buffer that can not seek, so the reader can't size its handle table.
+  class unseekable_buf
+  : public std::filebuf
+  {
+   protected:
+    auto seekoff(off_type, std::ios_base::seekdir, std::ios_base::openmode)
+    -> pos_type override {
+      return pos_type(off_type(-1));
+    }
+
+    auto seekpos(pos_type, std::ios_base::openmode)
+    -> pos_type override {
+      return pos_type(off_type(-1));
+    }
+  };
+
+  unseekable_buf buf;
+  REQUIRE CHECK(buf.open(SER_RESET_PATH, std::ios_base::in | std::ios_base::binary) != nullptr);
+  std::istream file(&buf);
+
+  reader r;
+  for (const auto expect : { u"foo", u"bar", u"bar" }) {
+    auto deser_obj = r.read(file);
+    REQUIRE CHECK(deser_obj.is_object());
+    auto element_ptr = deser_obj.as_object();
+    REQUIRE CHECK(element_ptr != nullptr);
+    CHECK_EQUAL(stream_string(expect), *element_ptr);
+    CHECK(file.good());
+  }
+}
+
 int main(int argc, char** argv) {
   if (argc != 2) {
     std::cerr << "Require argument: path to serialized file SerString.ser\n";
@@ -6,10 +6,17 @@ import com.github.nahratzah.jser_plus_plus.input.Processor;
 import com.github.nahratzah.jser_plus_plus.input.Scanner;
 import static com.github.nahratzah.jser_plus_plus.input.Scanner.Options.ADD_BOOT_CLASSPATH;
 import com.github.nahratzah.jser_plus_plus.output.CmakeModule;
+import com.github.nahratzah.jser_plus_plus.output.FingerprintCache;
+import com.github.nahratzah.jser_plus_plus.output.builtins.StCtx;
+import com.google.common.cache.CacheStats;
 import java.io.File;
 import java.io.PrintWriter;
 import java.io.StringWriter;
+import java.util.ArrayList;
 import static java.util.Collections.EMPTY_SET;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 import java.util.logging.ConsoleHandler;
 import java.util.logging.Formatter;
 import java.util.logging.Handler;
@@ -27,8 +34,61 @@ import java.util.stream.Stream;
 public class Main {
     private static final Logger LOG = Logger.getLogger(Main.class.getName());
     private static final boolean ENABLE_DEBUG_LOGS = false;
+    /**
+     * If set, the scanner reads class file headers to select classes, instead
+     * of loading every class on the class path.
+     */
+    private static final boolean HEADER_SCAN = true;
+    /**
+     * Number of threads used to scan the class path.
+     *
+     * If set to 1, class path entries are scanned on the main thread.
+     */
+    private static final int SCAN_PARALLELISM = Runtime.getRuntime().availableProcessors();
+    /**
+     * Number of threads used to initialize scanned classes.
+     *
+     * Explicitly configured classes are always initialized on the main
+     * thread, in configuration order.
+     * If set to 1, scanned classes are initialized on the main thread too.
+     */
+    private static final int RESOLVE_PARALLELISM = Runtime.getRuntime().availableProcessors();
+    /**
+     * Number of threads used to post process classes.
+     *
+     * If set to 1, classes are post processed on the main thread.
+     */
+    private static final int POST_PROCESS_PARALLELISM = Runtime.getRuntime().availableProcessors();
     private static final File CONFIG_DIR = new File("/home/ariane/programming/JSer++-2/config");
     private static final File OUTPUT_DIR = new File("/tmp/jvm");
+    /**
+     * File holding fingerprints of the previous run.
+     *
+     * Code generators with unchanged fingerprints are not rendered.
+     */
+    private static final File FINGERPRINT_FILE = new File(OUTPUT_DIR.getParentFile(), OUTPUT_DIR.getName() + ".fingerprints");
+    /**
+     * Number of threads used to render files.
+     *
+     * If set to 1, files are rendered on the main thread.
+     */
+    private static final int EMIT_PARALLELISM = Runtime.getRuntime().availableProcessors();
+    /**
+     * Number of generated sources compiled together in a unity build bundle.
+     *
+     * If set to 0, each generated source is compiled separately.
+     */
+    private static final int UNITY_BUILD_BUNDLE_SIZE = 0;
+    /**
+     * If set, the generated library uses a precompiled header, made up of the
+     * most frequently included runtime and java.lang headers.
+     */
+    private static final boolean PRECOMPILED_HEADERS = false;
+    /**
+     * If set, generated sources are compiled in an object library per package,
+     * which are combined into the module library.
+     */
+    private static final boolean PACKAGE_LIBRARIES = false;
 
     public static void main(String[] args) throws Exception {
         configureLogging();
@@ -53,28 +113,115 @@ public class Main {
 
             LOG.log(Level.INFO, "Applying scanner...");
             final Class<?> serializable = s.getClassLoader().loadClass(java.io.Serializable.class.getName());
-            try (final Stream<Class<?>> classStream = s.getClassesChecked()
-                    .filter(c -> !c.isPrimitive())
-                    .filter(c -> !c.isAnonymousClass())
-                    .filter(cfg.getScan().filter().and(serializable::isAssignableFrom))
-                    .peek(c -> LOG.log(Level.FINE, "Adding scanned {0}", c))) {
-                p.addClasses(classStream.collect(Collectors.toList()));
+            final Stream<Class<?>> scannedClasses;
+            if (HEADER_SCAN) {
+                final ForkJoinPool scanPool = (SCAN_PARALLELISM > 1 ? new ForkJoinPool(SCAN_PARALLELISM) : null);
+                try {
+                    scannedClasses = s.getInheritingClasses(serializable.getName(), cfg.getScan().packageFilter(), scanPool);
+                } finally {
+                    if (scanPool != null) scanPool.shutdown();
+                }
+            } else {
+                scannedClasses = s.getClassesChecked()
+                        .filter(c -> !c.isPrimitive())
+                        .filter(c -> !c.isAnonymousClass())
+                        .filter(cfg.getScan().filter().and(serializable::isAssignableFrom));
+            }
+            final Set<String> roots = cfg.getScan().getRoots();
+            final List<Class<?>> scannedClassList;
+            try (final Stream<Class<?>> classStream = scannedClasses) {
+                scannedClassList = classStream.collect(Collectors.toList());
+            }
+
+            final List<Class<?>> classList;
+            if (roots.isEmpty()) {
+                classList = scannedClassList;
+                classList.forEach(c -> LOG.log(Level.FINE, "Adding scanned {0}", c));
+            } else {
+                LOG.log(Level.INFO, "Adding {0} root classes...", roots.size());
+                classList = new ArrayList<>();
+                for (String name : roots.stream().sorted().collect(Collectors.toList())) {
+                    final Class<?> c = s.getClassLoader().loadClass(name);
+                    LOG.log(Level.FINE, "Adding root {0}", c);
+                    classList.add(c);
+                }
+            }
+
+            if (RESOLVE_PARALLELISM > 1) {
+                final ForkJoinPool resolvePool = new ForkJoinPool(RESOLVE_PARALLELISM);
+                try {
+                    p.addClasses(classList, resolvePool);
+                } finally {
+                    resolvePool.shutdown();
+                }
+            } else {
+                p.addClasses(classList);
             }
 
+            if (!roots.isEmpty()) reportPruned(p, scannedClassList);
+
             LOG.log(Level.CONFIG, "{0} classes selected.", p.getNumClasses());
 
             LOG.log(Level.INFO, "Postprocessing...");
-            p.postProcess();
+            if (POST_PROCESS_PARALLELISM > 1) {
+                final ForkJoinPool postProcessPool = new ForkJoinPool(POST_PROCESS_PARALLELISM);
+                try {
+                    p.postProcess(postProcessPool);
+                } finally {
+                    postProcessPool.shutdown();
+                }
+            } else {
+                p.postProcess();
+            }
 
             LOG.log(Level.INFO, "Updating files...");
-            try (final CmakeModule cmake = new CmakeModule(cfg.getModule(), OUTPUT_DIR, EMPTY_SET, EMPTY_SET, EMPTY_SET)) {
+            try (final CmakeModule cmake = new CmakeModule(cfg.getModule(), OUTPUT_DIR, EMPTY_SET, EMPTY_SET, EMPTY_SET, UNITY_BUILD_BUNDLE_SIZE, PRECOMPILED_HEADERS, PACKAGE_LIBRARIES)) {
                 cmake.addSupplied(
                         new File("/usr/home/ariane/programming/JSer++-2/jvm_supplied/include"),
                         new File("/usr/home/ariane/programming/JSer++-2/jvm_supplied/src"));
-                final int changedFiles = p.emit(cmake);
+                final FingerprintCache fingerprintCache = FingerprintCache.load(FINGERPRINT_FILE.toPath());
+                final int changedFiles;
+                if (EMIT_PARALLELISM > 1) {
+                    final ForkJoinPool emitPool = new ForkJoinPool(EMIT_PARALLELISM);
+                    try {
+                        changedFiles = p.emit(cmake, emitPool, fingerprintCache);
+                    } finally {
+                        emitPool.shutdown();
+                    }
+                } else {
+                    changedFiles = p.emit(cmake, null, fingerprintCache);
+                }
+                fingerprintCache.save();
                 LOG.log(Level.INFO, "Updated {0} files.", changedFiles);
             }
+
+            LOG.log(Level.CONFIG, "StringTemplate context groups: {0} created, {1} templates compiled, {2} renders.",
+                    new Object[]{StCtx.getContextGroupCount(), StCtx.getCompilationCount(), StCtx.getRenderCount()});
+            final CacheStats parseCacheStats = p.getParseCache().stats();
+            LOG.log(Level.CONFIG, "Parsed type cache: {0} hits, {1} misses, {2} evictions.",
+                    new Object[]{parseCacheStats.hitCount(), parseCacheStats.missCount(), parseCacheStats.evictionCount()});
+        }
+    }
+
+    /**
+     * Log which scanned classes were pruned, because they are not reachable
+     * from the root classes or explicitly configured classes.
+     *
+     * @param p The processor holding all reachable classes.
+     * @param scannedClasses The classes selected by the scanner.
+     */
+    private static void reportPruned(Processor p, List<Class<?>> scannedClasses) {
+        int pruned = 0;
+        for (Class<?> c : scannedClasses) {
+            if (p.hasClass(c)) {
+                LOG.log(Level.FINE, "Keeping scanned {0}: reachable via {1}",
+                        new Object[]{c, p.getResolutionPath(c).stream().map(Class::getName).collect(Collectors.joining(" -> "))});
+            } else {
+                LOG.log(Level.FINE, "Pruning scanned {0}: not reachable from roots or configured classes", c);
+                ++pruned;
+            }
         }
+        LOG.log(Level.INFO, "Pruned {0} of {1} scanned classes.", new Object[]{pruned, scannedClasses.size()});
     }
 
     private static void enableLogLevel(Level level) {
@@ -1,6 +1,7 @@
 package com.github.nahratzah.jser_plus_plus.config;
 
 import java.util.Collection;
+import static java.util.Collections.unmodifiableList;
 import static java.util.Collections.unmodifiableMap;
 import java.util.HashSet;
 import java.util.LinkedList;
@@ -65,32 +66,41 @@ public class ClassConfig {
         return cfgClass.isInheritConstructors();
     }
 
+    /**
+     * Retrieve the class configuration, prior to applying rules.
+     *
+     * @return The configuration of the class.
+     */
+    public CfgClass getCfgClass() {
+        return cfgClass;
+    }
+
+    /**
+     * Retrieve the rules that apply to this class.
+     *
+     * @return All rules that matched the class and were not suppressed.
+     */
+    public List<Rule> getRules() {
+        requireNonNull(rules, "ClassConfig.updateWithSuperTypes() has not been run!");
+        return unmodifiableList(rules);
+    }
+
     public void updateWithSuperTypes(boolean isAbstract, boolean isInterface, boolean isEnum, CfgSuperType thisType) {
-        final Set<CfgSuperType> allParentTypes = thisType.getAllParentTypes();
+        final Set<String> allParentNames = thisType.getAllParentTypes().stream()
+                .map(CfgSuperType::getName)
+                .collect(Collectors.toSet());
 
         // Decide on which rules have matching predicate.
-        final List<Rule> allMatchingRules = cfg.getRules().stream()
-                .filter(rule -> {
-                    return rule.getPredicate().test(
-                            isAbstract, isInterface, isEnum,
-                            allParentTypes.stream()
-                                    .map(CfgSuperType::getName)
-                                    .collect(Collectors.toSet()));
-                })
-                .collect(Collectors.toList());
+        final List<Rule> allMatchingRules = cfg.ruleIndex().match(isAbstract, isInterface, isEnum, allParentNames);
 
         // Decide which rules are supporessed by this type or any type this inherits from.
         final Set<String> suppressedRulesFromTypes = Stream.of(
                 cfgClass.getLocalSuppressedRules().stream(),
                 cfgClass.getInheritSuppressedRules().stream(),
-                allParentTypes.stream()
-                        .map(parentType -> parentType.getName())
+                allParentNames.stream()
                         .map(parentName -> {
-                            return cfg.getClasses().entrySet().stream()
-                                    .filter(cls -> Objects.equals(cls.getKey().getName(), parentName))
-                                    .map(Map.Entry::getValue)
+                            return cfg.getCfgClass(parentName)
                                     .map(CfgClass::getInheritSuppressedRules)
-                                    .findAny()
                                     .orElse(null);
                         })
                         .filter(Objects::nonNull)
@@ -2,17 +2,20 @@ package com.github.nahratzah.jser_plus_plus.config;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
 import com.google.common.collect.Sets;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import static java.util.Collections.unmodifiableList;
+import static java.util.Collections.unmodifiableMap;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -30,31 +33,53 @@ import java.util.stream.Stream;
  */
 public class Config {
     private static final Logger LOG = Logger.getLogger(Config.class.getName());
+    /**
+     * Reader for configuration files.
+     *
+     * Readers are immutable and thread safe, so a single instance is shared
+     * by all loads.
+     */
+    private static final ObjectReader READER = new ObjectMapper(new YAMLFactory())
+            .readerFor(Config.class);
 
     public static Config fromFile(File cfgFile) throws IOException {
         try (InputStream configStream = new FileInputStream(cfgFile)) {
-            final ObjectMapper mapper = new ObjectMapper(new YAMLFactory());
-            return mapper.readValue(configStream, Config.class);
+            return READER.readValue(configStream);
         }
     }
 
     public static Config fromDir(File dir) throws IOException {
-        final Config config = new Config();
-        final boolean any;
-
+        final List<Path> paths;
         try (Stream<Path> pathStream = Files.find(dir.toPath(), Integer.MAX_VALUE, (path, attr) -> {
             return attr.isRegularFile()
                     && path.toString().endsWith(".yaml");
         })) {
-            final Iterator<File> fileIter = pathStream
-                    .map(Path::toFile)
-                    .iterator();
-            any = fileIter.hasNext();
-            while (fileIter.hasNext())
-                config.merge(fromFile(fileIter.next()));
+            paths = pathStream
+                    .sorted()
+                    .collect(Collectors.toList());
         }
+        if (paths.isEmpty()) throw new IOException("no config files in directory: " + dir);
 
-        if (!any) throw new IOException("no config files in directory: " + dir);
+        // Parse files concurrently, but merge them in path order,
+        // so that merge errors are reported deterministically.
+        final List<Config> parsed;
+        try {
+            parsed = paths.parallelStream()
+                    .map(path -> {
+                        try {
+                            return fromFile(path.toFile());
+                        } catch (IOException ex) {
+                            throw new UncheckedIOException(ex);
+                        }
+                    })
+                    .collect(Collectors.toList());
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        }
+
+        final Config config = new Config();
+        parsed.forEach(config::merge);
+        config.freeze();
         return config;
     }
 
@@ -78,6 +103,7 @@ public class Config {
      * @param y The other config to merge into this one.
      */
     public void merge(Config y) {
+        requireNotFrozen();
         if (module != null && y.module != null && !Objects.equals(module, y.module))
             throw new IllegalArgumentException("conflicting module name");
         if (module == null) module = y.module;
@@ -117,6 +143,7 @@ public class Config {
      * @param module Module name.
      */
     public void setModule(String module) {
+        requireNotFrozen();
         this.module = module;
     }
 
@@ -135,6 +162,7 @@ public class Config {
      * @param scan New package scanner configuration.
      */
     public void setScan(Scan scan) {
+        requireNotFrozen();
         this.scan = scan;
     }
 
@@ -153,14 +181,65 @@ public class Config {
      * @param classes Mapping of class configurations.
      */
     public void setClasses(Map<ClassName, CfgClass> classes) {
+        requireNotFrozen();
         this.classes = classes;
     }
 
+    /**
+     * Freeze the configuration.
+     *
+     * A frozen configuration can no longer be modified. Class lookups on a
+     * frozen configuration are answered from an index, instead of scanning
+     * all configured classes.
+     */
+    public void freeze() {
+        if (index != null) return;
+        classes = unmodifiableMap(classes);
+        rules = unmodifiableList(rules);
+        index = new ClassIndex(classes);
+        ruleIndex = new RuleIndex(rules);
+    }
+
+    private void requireNotFrozen() {
+        if (index != null)
+            throw new IllegalStateException("configuration is frozen");
+    }
+
+    /**
+     * Retrieve the index of configured classes.
+     *
+     * @return The frozen index, or a freshly built index if this
+     * configuration is not frozen.
+     */
+    private ClassIndex index() {
+        if (index != null) return index;
+        return new ClassIndex(classes);
+    }
+
+    /**
+     * Retrieve the index of rules.
+     *
+     * @return The frozen rule index, or a freshly built index if this
+     * configuration is not frozen.
+     */
+    RuleIndex ruleIndex() {
+        if (ruleIndex != null) return ruleIndex;
+        return new RuleIndex(rules);
+    }
+
     public Optional<List<String>> getTemplateArguments(String className) {
-        return getClasses().keySet().stream()
-                .filter(key -> Objects.equals(key.getName(), className))
-                .map(key -> key.getTemplateArgumentNames())
-                .findAny();
+        return Optional.ofNullable(index().names.get(className))
+                .map(ClassName::getTemplateArgumentNames);
+    }
+
+    /**
+     * Retrieve the configuration of a class, by name.
+     *
+     * @param className The name of a class.
+     * @return The configuration of the class, if it has one.
+     */
+    public Optional<CfgClass> getCfgClass(String className) {
+        return Optional.ofNullable(index().cfgClasses.get(className));
     }
 
     /**
@@ -170,17 +249,12 @@ public class Config {
      * config.
      */
     public Predicate<Class<?>> hasConfigForClass() {
-        return getClasses().keySet().stream()
-                .map(ClassName::getName)
-                .collect(Collectors.toSet())::contains;
+        final Map<String, ClassName> names = index().names;
+        return c -> names.containsKey(c.getName());
     }
 
     public ClassConfig getConfigForClass(Class<?> c) {
-        final CfgClass cfgClass = getClasses().entrySet().stream()
-                .filter(entry -> Objects.equals(entry.getKey().getName(), c.getName()))
-                .map(entry -> entry.getValue())
-                .filter(Objects::nonNull)
-                .findAny()
+        final CfgClass cfgClass = getCfgClass(c.getName())
                 .orElseGet(CfgClass::new);
 
         return new ClassConfig(this, cfgClass);
@@ -191,6 +265,7 @@ public class Config {
     }
 
     public void setRules(List<Rule> rules) {
+        requireNotFrozen();
         this.rules = rules;
     }
 
@@ -199,6 +274,7 @@ public class Config {
     }
 
     public void setDevMode(boolean devMode) {
+        requireNotFrozen();
         this.devMode = devMode;
     }
 
@@ -216,4 +292,28 @@ public class Config {
 
     @JsonProperty("dev_mode")
     private boolean devMode = false;
+
+    /**
+     * Index of configured classes, set once the configuration is frozen.
+     */
+    private ClassIndex index;
+    /**
+     * Index of rules, set once the configuration is frozen.
+     */
+    private RuleIndex ruleIndex;
+
+    /**
+     * Lookup tables from class name to its configuration.
+     */
+    private static class ClassIndex {
+        public ClassIndex(Map<ClassName, CfgClass> classes) {
+            classes.forEach((className, cfgClass) -> {
+                names.put(className.getName(), className);
+                if (cfgClass != null) cfgClasses.put(className.getName(), cfgClass);
+            });
+        }
+
+        public final Map<String, ClassName> names = new HashMap<>();
+        public final Map<String, CfgClass> cfgClasses = new HashMap<>();
+    }
 }
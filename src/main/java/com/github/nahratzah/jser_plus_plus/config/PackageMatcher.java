@@ -0,0 +1,129 @@
+package com.github.nahratzah.jser_plus_plus.config;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Compiled matcher for package include and exclude patterns.
+ *
+ * Patterns are matched as prefixes of the package name. The longest matching
+ * pattern decides if a package is selected; if an include and an exclude
+ * pattern match equally long prefixes, the exclude pattern wins. A package
+ * that matches no include pattern is not selected.
+ *
+ * Patterns may contain wildcards: {@code *} matches any sequence of characters
+ * within a single package name component, {@code **} matches any sequence of
+ * characters. The length of a match is the number of characters of the
+ * package name covered by the pattern.
+ *
+ * The patterns are compiled into a trie, so a package name is tested in a
+ * single pass.
+ *
+ * @author ariane
+ */
+class PackageMatcher implements Predicate<String> {
+    private static final int INCLUDE = 1;
+    private static final int EXCLUDE = 2;
+
+    public PackageMatcher(Collection<String> includePackages, Collection<String> excludePackages) {
+        includePackages.forEach(pattern -> add(pattern, INCLUDE));
+        excludePackages.forEach(pattern -> add(pattern, EXCLUDE));
+    }
+
+    private void add(String pattern, int decision) {
+        Node node = root;
+        for (int i = 0; i < pattern.length(); ++i) {
+            final char ch = pattern.charAt(i);
+            if (ch != '*') {
+                node = node.children.computeIfAbsent(ch, k -> new Node(Node.NO_LOOP));
+            } else if (i + 1 < pattern.length() && pattern.charAt(i + 1) == '*') {
+                if (node.anyWildcard == null) node.anyWildcard = new Node(Node.LOOP_ANY);
+                node = node.anyWildcard;
+                ++i;
+            } else {
+                if (node.segmentWildcard == null) node.segmentWildcard = new Node(Node.LOOP_SEGMENT);
+                node = node.segmentWildcard;
+            }
+        }
+        node.decision |= decision;
+    }
+
+    @Override
+    public boolean test(String name) {
+        List<Node> active = new ArrayList<>();
+        List<Node> next = new ArrayList<>();
+        addWithWildcards(active, root);
+
+        int decision = decide(active, 0);
+        for (int i = 0; i < name.length() && !active.isEmpty(); ++i) {
+            final char ch = name.charAt(i);
+            for (Node node : active) {
+                final Node child = node.children.get(ch);
+                if (child != null) addWithWildcards(next, child);
+                if (node.loop == Node.LOOP_ANY || (node.loop == Node.LOOP_SEGMENT && ch != '.'))
+                    addWithWildcards(next, node);
+            }
+
+            final List<Node> tmp = active;
+            active = next;
+            next = tmp;
+            next.clear();
+
+            final int matched = decide(active, 0);
+            if (matched != 0) decision = matched;
+        }
+
+        return decision == INCLUDE;
+    }
+
+    /**
+     * Decide on the outcome of the active nodes.
+     *
+     * @param active The nodes reached by the current prefix.
+     * @param decision The decision if none of the nodes terminates a pattern.
+     * @return {@link #EXCLUDE} if any node terminates an exclude pattern,
+     * {@link #INCLUDE} if any node terminates an include pattern, or the
+     * passed in decision otherwise.
+     */
+    private static int decide(List<Node> active, int decision) {
+        int flags = 0;
+        for (Node node : active) flags |= node.decision;
+
+        if ((flags & EXCLUDE) != 0) return EXCLUDE;
+        if ((flags & INCLUDE) != 0) return INCLUDE;
+        return decision;
+    }
+
+    /**
+     * Add a node to the active set, together with the wildcard nodes that can
+     * be reached from it without consuming any characters.
+     */
+    private static void addWithWildcards(List<Node> active, Node node) {
+        if (active.contains(node)) return;
+        active.add(node);
+        if (node.segmentWildcard != null) addWithWildcards(active, node.segmentWildcard);
+        if (node.anyWildcard != null) addWithWildcards(active, node.anyWildcard);
+    }
+
+    private static class Node {
+        public static final int NO_LOOP = 0;
+        public static final int LOOP_SEGMENT = 1;
+        public static final int LOOP_ANY = 2;
+
+        public Node(int loop) {
+            this.loop = loop;
+        }
+
+        public final Map<Character, Node> children = new HashMap<>();
+        public final int loop;
+        public Node segmentWildcard;
+        public Node anyWildcard;
+        public int decision;
+    }
+
+    private final Node root = new Node(Node.NO_LOOP);
+}
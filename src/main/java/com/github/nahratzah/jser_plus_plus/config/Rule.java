@@ -69,11 +69,15 @@ public class Rule {
         @JsonProperty("inherits")
         private List<String> inherits = new ArrayList<>();
 
+        public List<String> getInherits() {
+            return inherits;
+        }
+
         public boolean test(boolean isAbstract, boolean isInterface, boolean isEnum, Set<String> types) {
             return testModifiers(isAbstract, isInterface, isEnum) && testInherits(types);
         }
 
-        private boolean testModifiers(boolean isAbstract, boolean isInterface, boolean isEnum) {
+        boolean testModifiers(boolean isAbstract, boolean isInterface, boolean isEnum) {
             if (isAbstract) return abstract_;
             if (isInterface) return interface_;
             return class_;
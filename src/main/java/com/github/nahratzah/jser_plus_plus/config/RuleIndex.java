@@ -0,0 +1,60 @@
+package com.github.nahratzah.jser_plus_plus.config;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Index of rules, keyed by the type names in their inherits predicate.
+ *
+ * Rules without an inherits predicate apply to every type and are kept in a
+ * separate bucket. Matching a type only evaluates the rules for which it
+ * inherits at least one of the named types.
+ *
+ * @author ariane
+ */
+class RuleIndex {
+    public RuleIndex(List<Rule> rules) {
+        this.rules = new ArrayList<>(rules);
+
+        for (int i = 0; i < this.rules.size(); ++i) {
+            final List<String> inherits = this.rules.get(i).getPredicate().getInherits();
+            if (inherits.isEmpty()) {
+                unconditional.set(i);
+            } else {
+                for (String inherit : inherits)
+                    byInherits.computeIfAbsent(inherit, k -> new BitSet()).set(i);
+            }
+        }
+    }
+
+    /**
+     * Find all rules that match a type.
+     *
+     * @param isAbstract True if the type is abstract.
+     * @param isInterface True if the type is an interface.
+     * @param isEnum True if the type is an enum.
+     * @param parentNames The names of all parent types of the type.
+     * @return All matching rules, in the order in which they were configured.
+     */
+    public List<Rule> match(boolean isAbstract, boolean isInterface, boolean isEnum, Set<String> parentNames) {
+        final BitSet candidates = (BitSet) unconditional.clone();
+        for (String parentName : parentNames) {
+            final BitSet inheritRules = byInherits.get(parentName);
+            if (inheritRules != null) candidates.or(inheritRules);
+        }
+
+        return candidates.stream()
+                .mapToObj(rules::get)
+                .filter(rule -> rule.getPredicate().testModifiers(isAbstract, isInterface, isEnum))
+                .collect(Collectors.toList());
+    }
+
+    private final List<Rule> rules;
+    private final BitSet unconditional = new BitSet();
+    private final Map<String, BitSet> byInherits = new HashMap<>();
+}
@@ -2,7 +2,6 @@ package com.github.nahratzah.jser_plus_plus.config;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
 import java.util.HashSet;
-import java.util.OptionalInt;
 import java.util.Set;
 import java.util.function.Predicate;
 
@@ -28,28 +27,49 @@ public class Scan {
         this.excludePackages = excludePackages;
     }
 
-    public Predicate<Class<?>> filter() {
-        return (Class<?> c) -> {
-            final String name = c.getPackage().getName();
-
-            final OptionalInt includeLen = includePackages.stream()
-                    .filter(pkg -> name.startsWith(pkg))
-                    .mapToInt(pkg -> pkg.length())
-                    .max();
-            if (!includeLen.isPresent()) return false;
+    /**
+     * Root classes.
+     *
+     * If any roots are configured, only the roots, the explicitly configured
+     * classes, and the classes they require are generated. Scanned classes
+     * not reachable from those are pruned.
+     *
+     * @return The names of the root classes.
+     */
+    public Set<String> getRoots() {
+        return roots;
+    }
 
-            final OptionalInt excludeLen = excludePackages.stream()
-                    .filter(pkg -> name.startsWith(pkg))
-                    .mapToInt(pkg -> pkg.length())
-                    .max();
-            if (!excludeLen.isPresent()) return true;
+    public void setRoots(Set<String> roots) {
+        this.roots = roots;
+    }
 
-            return includeLen.getAsInt() > excludeLen.getAsInt();
+    public Predicate<Class<?>> filter() {
+        final Predicate<String> packageFilter = packageFilter();
+        return (Class<?> c) -> {
+            final int lastDot = c.getName().lastIndexOf('.');
+            return packageFilter.test(lastDot == -1 ? "" : c.getName().substring(0, lastDot));
         };
     }
 
+    /**
+     * Create a predicate that tests if a package is to be scanned.
+     *
+     * Include and exclude entries are prefixes of package names and may
+     * contain {@code *} (any characters within one package name component) and
+     * {@code **} (any characters) wildcards. The longest matching entry
+     * decides if a package is scanned.
+     *
+     * @return Predicate on package names.
+     */
+    public Predicate<String> packageFilter() {
+        return new PackageMatcher(includePackages, excludePackages);
+    }
+
     @JsonProperty("include")
     private Set<String> includePackages = new HashSet<>();
     @JsonProperty("exclude")
     private Set<String> excludePackages = new HashSet<>();
+    @JsonProperty("roots")
+    private Set<String> roots = new HashSet<>();
 }
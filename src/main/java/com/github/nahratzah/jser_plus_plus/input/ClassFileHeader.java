@@ -0,0 +1,270 @@
+package com.github.nahratzah.jser_plus_plus.input;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import static java.util.Collections.unmodifiableList;
+import java.util.List;
+import static java.util.Objects.requireNonNull;
+import java.util.Optional;
+
+/**
+ * The header of a class file.
+ *
+ * Contains the information required to decide if a class is to be loaded,
+ * without loading it.
+ *
+ * @author ariane
+ */
+public class ClassFileHeader {
+    private static final int MAGIC = 0xcafebabe;
+    private static final int ACC_INTERFACE = 0x0200;
+    private static final int ACC_ABSTRACT = 0x0400;
+    private static final int ACC_SYNTHETIC = 0x1000;
+    private static final int ACC_ENUM = 0x4000;
+    private static final String INNER_CLASSES_ATTRIBUTE = "InnerClasses";
+
+    private static final int CONSTANT_UTF8 = 1;
+    private static final int CONSTANT_INTEGER = 3;
+    private static final int CONSTANT_FLOAT = 4;
+    private static final int CONSTANT_LONG = 5;
+    private static final int CONSTANT_DOUBLE = 6;
+    private static final int CONSTANT_CLASS = 7;
+    private static final int CONSTANT_STRING = 8;
+    private static final int CONSTANT_FIELDREF = 9;
+    private static final int CONSTANT_METHODREF = 10;
+    private static final int CONSTANT_INTERFACE_METHODREF = 11;
+    private static final int CONSTANT_NAME_AND_TYPE = 12;
+    private static final int CONSTANT_METHOD_HANDLE = 15;
+    private static final int CONSTANT_METHOD_TYPE = 16;
+    private static final int CONSTANT_DYNAMIC = 17;
+    private static final int CONSTANT_INVOKE_DYNAMIC = 18;
+    private static final int CONSTANT_MODULE = 19;
+    private static final int CONSTANT_PACKAGE = 20;
+
+    private ClassFileHeader(String name, int accessFlags, String superName, List<String> interfaceNames, boolean anonymous) {
+        this.name = requireNonNull(name);
+        this.accessFlags = accessFlags;
+        this.superName = superName;
+        this.interfaceNames = unmodifiableList(requireNonNull(interfaceNames));
+        this.anonymous = anonymous;
+    }
+
+    /**
+     * Read the header of a class file.
+     *
+     * The stream is read up to the end of the class attributes; it is not
+     * closed.
+     *
+     * @param in The stream containing the class file.
+     * @return The header of the class file.
+     * @throws IOException If the stream can not be read, or does not contain a
+     * valid class file.
+     */
+    public static ClassFileHeader read(InputStream in) throws IOException {
+        final DataInputStream data = new DataInputStream(in);
+
+        if (data.readInt() != MAGIC) throw new IOException("not a class file");
+        data.readUnsignedShort(); // minor version
+        data.readUnsignedShort(); // major version
+
+        // Read constant pool.
+        // We only retain UTF8 strings and class references.
+        final int constantPoolCount = data.readUnsignedShort();
+        final String[] utf8 = new String[constantPoolCount];
+        final int[] classNameIndex = new int[constantPoolCount];
+        for (int i = 1; i < constantPoolCount; ++i) {
+            final int tag = data.readUnsignedByte();
+            switch (tag) {
+                default:
+                    throw new IOException("unrecognized constant pool tag " + tag);
+                case CONSTANT_UTF8:
+                    utf8[i] = data.readUTF();
+                    break;
+                case CONSTANT_CLASS:
+                    classNameIndex[i] = data.readUnsignedShort();
+                    break;
+                case CONSTANT_STRING:
+                case CONSTANT_METHOD_TYPE:
+                case CONSTANT_MODULE:
+                case CONSTANT_PACKAGE:
+                    skipFully(data, 2);
+                    break;
+                case CONSTANT_METHOD_HANDLE:
+                    skipFully(data, 3);
+                    break;
+                case CONSTANT_INTEGER:
+                case CONSTANT_FLOAT:
+                case CONSTANT_FIELDREF:
+                case CONSTANT_METHODREF:
+                case CONSTANT_INTERFACE_METHODREF:
+                case CONSTANT_NAME_AND_TYPE:
+                case CONSTANT_DYNAMIC:
+                case CONSTANT_INVOKE_DYNAMIC:
+                    skipFully(data, 4);
+                    break;
+                case CONSTANT_LONG:
+                case CONSTANT_DOUBLE:
+                    skipFully(data, 8);
+                    ++i; // Long and double occupy two slots.
+                    break;
+            }
+        }
+
+        final int accessFlags = data.readUnsignedShort();
+        final int thisClass = data.readUnsignedShort();
+        final int superClass = data.readUnsignedShort();
+        final int interfacesCount = data.readUnsignedShort();
+        final List<String> interfaceNames = new ArrayList<>(interfacesCount);
+        for (int i = 0; i < interfacesCount; ++i)
+            interfaceNames.add(className(utf8, classNameIndex, data.readUnsignedShort()));
+
+        // Skip fields and methods.
+        for (int memberKind = 0; memberKind < 2; ++memberKind) {
+            final int memberCount = data.readUnsignedShort();
+            for (int i = 0; i < memberCount; ++i) {
+                skipFully(data, 6); // access flags, name, descriptor
+                skipAttributes(data);
+            }
+        }
+
+        // Scan class attributes for the inner classes attribute, to figure out if this is an anonymous class.
+        boolean anonymous = false;
+        final int attributesCount = data.readUnsignedShort();
+        for (int i = 0; i < attributesCount; ++i) {
+            final String attributeName = utf8[data.readUnsignedShort()];
+            final long attributeLength = data.readInt() & 0xffffffffL;
+            if (!INNER_CLASSES_ATTRIBUTE.equals(attributeName)) {
+                skipFully(data, attributeLength);
+                continue;
+            }
+
+            final int innerClassesCount = data.readUnsignedShort();
+            for (int j = 0; j < innerClassesCount; ++j) {
+                final int innerClassInfo = data.readUnsignedShort();
+                data.readUnsignedShort(); // outer class info
+                final int innerName = data.readUnsignedShort();
+                data.readUnsignedShort(); // inner class access flags
+                if (innerClassInfo == thisClass && innerName == 0)
+                    anonymous = true;
+            }
+        }
+
+        return new ClassFileHeader(
+                className(utf8, classNameIndex, thisClass),
+                accessFlags,
+                (superClass == 0 ? null : className(utf8, classNameIndex, superClass)),
+                interfaceNames,
+                anonymous);
+    }
+
+    private static String className(String[] utf8, int[] classNameIndex, int index) throws IOException {
+        if (index <= 0 || index >= classNameIndex.length || classNameIndex[index] == 0)
+            throw new IOException("invalid class reference in constant pool");
+        final String internalName = utf8[classNameIndex[index]];
+        if (internalName == null)
+            throw new IOException("invalid class name reference in constant pool");
+        return internalName.replace('/', '.');
+    }
+
+    private static void skipAttributes(DataInputStream data) throws IOException {
+        final int attributesCount = data.readUnsignedShort();
+        for (int i = 0; i < attributesCount; ++i) {
+            skipFully(data, 2); // name
+            skipFully(data, data.readInt() & 0xffffffffL);
+        }
+    }
+
+    private static void skipFully(DataInputStream data, long n) throws IOException {
+        while (n > 0) {
+            final long skipped = data.skip(n);
+            if (skipped > 0) {
+                n -= skipped;
+            } else {
+                if (data.read() == -1) throw new EOFException();
+                --n;
+            }
+        }
+    }
+
+    /**
+     * The name of the class.
+     *
+     * @return A string of the form {@code "package.path.to.ClassName"}.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * The package of the class.
+     *
+     * @return The package of the class. Empty string if the class is in the
+     * default package.
+     */
+    public String getPackageName() {
+        final int lastDot = name.lastIndexOf('.');
+        return (lastDot == -1 ? "" : name.substring(0, lastDot));
+    }
+
+    /**
+     * The super class of the class.
+     *
+     * @return The name of the super class. Empty if the class has no super
+     * class (only {@link Object} has no super class).
+     */
+    public Optional<String> getSuperName() {
+        return Optional.ofNullable(superName);
+    }
+
+    /**
+     * The interfaces directly implemented by the class.
+     *
+     * @return List of names of directly implemented interfaces.
+     */
+    public List<String> getInterfaceNames() {
+        return interfaceNames;
+    }
+
+    public int getAccessFlags() {
+        return accessFlags;
+    }
+
+    public boolean isInterface() {
+        return (accessFlags & ACC_INTERFACE) != 0;
+    }
+
+    public boolean isAbstract() {
+        return (accessFlags & ACC_ABSTRACT) != 0;
+    }
+
+    public boolean isSynthetic() {
+        return (accessFlags & ACC_SYNTHETIC) != 0;
+    }
+
+    public boolean isEnum() {
+        return (accessFlags & ACC_ENUM) != 0;
+    }
+
+    /**
+     * Test if the class is an anonymous class.
+     *
+     * @return True if the class is anonymous.
+     */
+    public boolean isAnonymous() {
+        return anonymous;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+
+    private final String name;
+    private final int accessFlags;
+    private final String superName;
+    private final List<String> interfaceNames;
+    private final boolean anonymous;
+}
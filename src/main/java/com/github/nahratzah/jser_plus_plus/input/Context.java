@@ -1,6 +1,7 @@
 package com.github.nahratzah.jser_plus_plus.input;
 
 import com.github.nahratzah.jser_plus_plus.model.JavaType;
+import com.github.nahratzah.jser_plus_plus.model.ParseCache;
 import com.github.nahratzah.jser_plus_plus.model.PrimitiveType;
 import java.util.Arrays;
 
@@ -32,6 +33,16 @@ public interface Context {
                 });
     }
 
+    /**
+     * Cache of types parsed in this context.
+     *
+     * @return The parse cache of this context, or null if parsed types are
+     * not cached.
+     */
+    public default ParseCache getParseCache() {
+        return null;
+    }
+
     /**
      * Context that never resolves anything, but instead always throws
      * {@link UnsupportedOperationException}.
@@ -1,22 +1,70 @@
 package com.github.nahratzah.jser_plus_plus.input;
 
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.github.nahratzah.jser_plus_plus.config.ClassConfig;
 import com.github.nahratzah.jser_plus_plus.config.Config;
+import com.github.nahratzah.jser_plus_plus.misc.ListComparator;
 import com.github.nahratzah.jser_plus_plus.model.ClassType;
 import com.github.nahratzah.jser_plus_plus.model.EnumType;
 import com.github.nahratzah.jser_plus_plus.model.JavaType;
+import com.github.nahratzah.jser_plus_plus.model.ParseCache;
 import com.github.nahratzah.jser_plus_plus.model.PrimitiveType;
+import com.github.nahratzah.jser_plus_plus.model.Type;
 import com.github.nahratzah.jser_plus_plus.output.CmakeModule;
 import com.github.nahratzah.jser_plus_plus.output.CodeGenerator;
+import com.github.nahratzah.jser_plus_plus.output.FingerprintCache;
 import static com.github.nahratzah.jser_plus_plus.output.Util.setFileContents;
+import com.github.nahratzah.jser_plus_plus.output.builtins.StCtx;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.Resources;
+import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.net.URISyntaxException;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import java.nio.file.FileSystemNotFoundException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.CodeSource;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import static java.util.Collections.EMPTY_LIST;
+import static java.util.Collections.EMPTY_MAP;
+import static java.util.Collections.singleton;
+import static java.util.Collections.singletonList;
 import static java.util.Collections.unmodifiableCollection;
+import java.util.Comparator;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import static java.util.Objects.requireNonNull;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Resolver for classes to their C++ counterpart.
@@ -36,6 +84,11 @@ public class Processor implements Context {
         return classLoader;
     }
 
+    @Override
+    public ParseCache getParseCache() {
+        return parseCache;
+    }
+
     @Override
     public JavaType resolveClass(Class<?> c) {
         if (c.isPrimitive()) return PrimitiveType.fromClass(c);
@@ -45,27 +98,197 @@ public class Processor implements Context {
         if (c.isArray())
             throw new IllegalArgumentException("Arrays are not a resolvable type.");
 
-        synchronized (classes) {
-            /* scope */
-            {
-                final JavaType v = classes.get(c);
-                if (v != null) return v;
-            }
-
+        // Fast path: class has been resolved already.
+        Resolution resolution = resolutions.get(c);
+        List<Resolution> claimed = EMPTY_LIST;
+        if (resolution == null) {
             if (postProcessingStarted)
                 throw new IllegalStateException("Required type " + c + " not in list of classes during post processing.");
 
-            final JavaType v;
-            if (c.isEnum())
-                v = new EnumType(c);
-            else
-                v = new ClassType(c);
-            classes.put(c, v);
-            v.init(this, cfg);
-            return v;
+            claimed = claim(c);
+            resolution = resolutions.get(c);
+        }
+
+        if (resolution.done.isDone()) return join(resolution);
+        if (tryStart(resolution)) {
+            initialize(resolution, INITIALIZING.get().peek(), claimed);
+            return join(resolution);
+        }
+        // Recursive lookup: expose the registered-but-initializing instance.
+        if (resolution.owner == Thread.currentThread()) return resolution.type;
+
+        switch (startWaiting(resolution)) {
+            default:
+                throw new IllegalStateException("unreachable");
+            case WAIT:
+                break;
+            case STOLEN:
+                initialize(resolution, INITIALIZING.get().peek(), EMPTY_LIST);
+                return join(resolution);
+            case CYCLE:
+                // The owner waits for this thread, so its initialization is
+                // suspended, just like it would be on a serial recursive lookup.
+                LOG.log(Level.FINE, "Cyclic resolution of {0} across threads", c);
+                return resolution.type;
+        }
+
+        try {
+            return join(resolution);
+        } finally {
+            synchronized (waitingOn) {
+                waitingOn.remove(Thread.currentThread());
+            }
         }
     }
 
+    /**
+     * Register resolutions for a class and the classes in its component.
+     *
+     * The current thread becomes the owner of all registered resolutions, so
+     * that classes that refer to each other are initialized on a single
+     * thread.
+     *
+     * @param c The class to resolve.
+     * @return The resolutions that were registered. Empty if another thread
+     * registered the resolution of {@code c} first.
+     */
+    private List<Resolution> claim(Class<?> c) {
+        synchronized (waitingOn) {
+            if (resolutions.containsKey(c)) return EMPTY_LIST;
+
+            final List<Resolution> claimed = new ArrayList<>();
+            for (final Class<?> member : components.getOrDefault(c, singletonList(c))) {
+                if (resolutions.containsKey(member)) continue;
+                final Resolution resolution = new Resolution(member, member.isEnum() ? new EnumType(member) : new ClassType(member));
+                resolutions.put(member, resolution);
+                claimed.add(resolution);
+            }
+            return claimed;
+        }
+    }
+
+    /**
+     * Mark a resolution as started, if the current thread owns it and it
+     * has not been started yet.
+     *
+     * @param resolution The resolution to start.
+     * @return True if the current thread is to initialize the resolution.
+     */
+    private boolean tryStart(Resolution resolution) {
+        synchronized (waitingOn) {
+            if (resolution.owner != Thread.currentThread() || resolution.started)
+                return false;
+            resolution.started = true;
+            return true;
+        }
+    }
+
+    /**
+     * Initialize a type.
+     *
+     * Once the type is initialized, the other resolutions claimed alongside
+     * it are initialized as well, so that threads waiting for them don't wait
+     * for a thread that never gets to them.
+     *
+     * @param resolution The resolution to initialize. Must have been started
+     * by the current thread.
+     * @param referrer The class whose initialization required this class.
+     * Null if the class was added explicitly.
+     * @param claimed The resolutions claimed alongside this resolution.
+     */
+    private void initialize(Resolution resolution, Class<?> referrer, List<Resolution> claimed) {
+        resolution.referrer = referrer;
+        classes.put(resolution.c, resolution.type);
+
+        final Deque<Class<?>> initializing = INITIALIZING.get();
+        initializing.push(resolution.c);
+        try {
+            resolution.type.init(this, cfg);
+        } catch (RuntimeException | Error ex) {
+            resolution.done.completeExceptionally(ex);
+            claimed.stream()
+                    .filter(this::tryStart)
+                    .forEach(member -> member.done.completeExceptionally(ex));
+            throw ex;
+        } finally {
+            initializing.pop();
+        }
+        resolution.done.complete(resolution.type);
+
+        claimed.stream()
+                .filter(this::tryStart)
+                .forEach(member -> initialize(member, resolution.c, EMPTY_LIST));
+    }
+
+    private static JavaType join(Resolution resolution) {
+        try {
+            return resolution.done.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException)
+                throw (RuntimeException) ex.getCause();
+            if (ex.getCause() instanceof Error)
+                throw (Error) ex.getCause();
+            throw ex;
+        }
+    }
+
+    /**
+     * Register that the current thread is going to wait for a resolution.
+     *
+     * If the owner of the resolution is (transitively) waiting for the
+     * current thread, waiting would deadlock. If the owner has not started
+     * initializing the type, the current thread takes over the resolution.
+     * Otherwise the owner is suspended in the middle of initializing the type,
+     * like it would be on a serial recursive lookup, and the current thread is
+     * to use the type as is.
+     *
+     * @param resolution The resolution to wait for.
+     * @return What to do with the resolution.
+     */
+    private WaitResult startWaiting(Resolution resolution) {
+        final Thread self = Thread.currentThread();
+        synchronized (waitingOn) {
+            for (Resolution r = waitingOn.get(resolution.owner); r != null; r = waitingOn.get(r.owner)) {
+                if (r.owner == self) {
+                    if (resolution.started) return WaitResult.CYCLE;
+                    resolution.owner = self;
+                    resolution.started = true;
+                    return WaitResult.STOLEN;
+                }
+            }
+            waitingOn.put(self, resolution);
+            return WaitResult.WAIT;
+        }
+    }
+
+    /**
+     * Test if a class was added, either explicitly or because another class
+     * requires it.
+     *
+     * @param c A class.
+     * @return True if the class is part of this processor.
+     */
+    public boolean hasClass(Class<?> c) {
+        return resolutions.containsKey(c);
+    }
+
+    /**
+     * Explain why a class was added.
+     *
+     * @param c A class.
+     * @return The chain of classes, starting at an explicitly added class and
+     * ending at {@code c}, where each class was required by the initialization
+     * of the class before it. Empty if the class was not added.
+     */
+    public List<Class<?>> getResolutionPath(Class<?> c) {
+        final Deque<Class<?>> path = new ArrayDeque<>();
+        for (Resolution resolution = resolutions.get(c);
+             resolution != null && !path.contains(resolution.c);
+             resolution = (resolution.referrer == null ? null : resolutions.get(resolution.referrer)))
+            path.addFirst(resolution.c);
+        return new ArrayList<>(path);
+    }
+
     public void addClass(Class<?> c) {
         resolveClass(c);
     }
@@ -78,6 +301,60 @@ public class Processor implements Context {
         c.forEach(this::resolveClass);
     }
 
+    /**
+     * Add classes, resolving them in parallel.
+     *
+     * The super types of the classes are resolved first, serially and in
+     * order of the collection. The remaining classes are resolved in
+     * parallel. Classes that refer to each other, as far as reflection can
+     * tell, are resolved on a single thread, so that they see each other the
+     * same way as during serial resolution.
+     *
+     * @param c The classes to add.
+     * @param pool The pool on which to resolve classes.
+     */
+    public void addClasses(Collection<Class<?>> c, ForkJoinPool pool) {
+        final Set<Class<?>> superTypes = new LinkedHashSet<>();
+        c.forEach(cls -> collectSuperTypes(cls, superTypes));
+        superTypes.forEach(this::resolveClass);
+
+        final List<Class<?>> leaves = c.stream()
+                .filter(cls -> !hasClass(cls))
+                .collect(Collectors.toList());
+        components = ReferenceGraph.components(leaves, this::hasClass);
+        try {
+            pool.submit(() -> leaves.parallelStream().forEach(this::resolveClass)).get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while resolving classes", ex);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException)
+                throw (RuntimeException) ex.getCause();
+            if (ex.getCause() instanceof Error)
+                throw (Error) ex.getCause();
+            throw new IllegalStateException("class resolution failed", ex.getCause());
+        } finally {
+            components = EMPTY_MAP;
+        }
+    }
+
+    /**
+     * Collect the super types of a class, most general first.
+     *
+     * @param c The class whose super types to collect.
+     * @param superTypes Set to which the super types are added.
+     */
+    private static void collectSuperTypes(Class<?> c, Set<Class<?>> superTypes) {
+        final Stream<Class<?>> parents = Stream.concat(
+                Stream.<Class<?>>of(c.getSuperclass()).filter(Objects::nonNull),
+                Arrays.stream(c.getInterfaces()));
+        parents.forEachOrdered(parent -> {
+            if (superTypes.contains(parent)) return;
+            collectSuperTypes(parent, superTypes);
+            superTypes.add(parent);
+        });
+    }
+
     public void addClassNames(Collection<String> c) {
         c.forEach(this::resolveClass);
     }
@@ -92,6 +369,59 @@ public class Processor implements Context {
         classes.values().forEach(javaType -> javaType.postProcess(this));
     }
 
+    /**
+     * Post process all classes in parallel.
+     *
+     * A class is post processed once its super class and interfaces have
+     * been post processed. Classes that don't inherit from each other are
+     * post processed in parallel.
+     *
+     * @param pool The pool on which to post process classes.
+     */
+    public synchronized void postProcess(ForkJoinPool pool) {
+        if (postProcessingStarted) {
+            LOG.log(Level.WARNING, "Post processing requested a second time; skipping...");
+            return;
+        }
+        postProcessingStarted = true;
+
+        final Map<JavaType, CompletableFuture<Void>> scheduled = new HashMap<>();
+        final CompletableFuture<?>[] futures = classes.values().stream()
+                .map(javaType -> schedulePostProcess(javaType, scheduled, pool))
+                .toArray(CompletableFuture<?>[]::new);
+
+        try {
+            CompletableFuture.allOf(futures).join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException)
+                throw (RuntimeException) ex.getCause();
+            if (ex.getCause() instanceof Error)
+                throw (Error) ex.getCause();
+            throw ex;
+        }
+    }
+
+    /**
+     * Schedule post processing of a type, after its parent types.
+     *
+     * @param javaType The type to post process.
+     * @param scheduled Map of types to their scheduled post processing.
+     * @param pool The pool on which to post process the type.
+     * @return Future that completes once the type has been post processed.
+     */
+    private CompletableFuture<Void> schedulePostProcess(JavaType javaType, Map<JavaType, CompletableFuture<Void>> scheduled, ForkJoinPool pool) {
+        final CompletableFuture<Void> existing = scheduled.get(javaType);
+        if (existing != null) return existing;
+
+        final CompletableFuture<?>[] parents = Stream.concat(Stream.of(javaType.getSuperClass()).filter(Objects::nonNull), javaType.getInterfaces().stream())
+                .map(parentType -> schedulePostProcess(parentType.getType(), scheduled, pool))
+                .toArray(CompletableFuture<?>[]::new);
+        final CompletableFuture<Void> future = CompletableFuture.allOf(parents)
+                .thenRunAsync(() -> javaType.postProcess(this), pool);
+        scheduled.put(javaType, future);
+        return future;
+    }
+
     /**
      * Registers all files that are to be emitted with the module and emits
      * those files.
@@ -101,6 +431,44 @@ public class Processor implements Context {
      * @throws IOException If any of the file write operations fails.
      */
     public synchronized int emit(CmakeModule module) throws IOException {
+        return emit(module, null);
+    }
+
+    /**
+     * Registers all files that are to be emitted with the module and emits
+     * those files.
+     *
+     * If a pool is supplied, the files are rendered and written in parallel
+     * on the pool. Since each file is rendered independently, the contents of
+     * each file is the same as for a serial run.
+     *
+     * @param module The cmake module that will contain the project.
+     * @param pool The pool on which to render files. If null, files are
+     * rendered serially on the calling thread.
+     * @return Number of files that was modified.
+     * @throws IOException If any of the file write operations fails.
+     */
+    public synchronized int emit(CmakeModule module, ForkJoinPool pool) throws IOException {
+        return emit(module, pool, null);
+    }
+
+    /**
+     * Registers all files that are to be emitted with the module and emits
+     * those files.
+     *
+     * If a fingerprint cache is supplied, code generators whose fingerprint
+     * is unchanged are registered with the module, but not rendered. The cache
+     * is updated with the fingerprints of all code generators, but not saved.
+     *
+     * @param module The cmake module that will contain the project.
+     * @param pool The pool on which to render files. If null, files are
+     * rendered serially on the calling thread.
+     * @param cache Fingerprint cache used to skip rendering of unchanged code
+     * generators. May be null.
+     * @return Number of files that was modified.
+     * @throws IOException If any of the file write operations fails.
+     */
+    public synchronized int emit(CmakeModule module, ForkJoinPool pool, FingerprintCache cache) throws IOException {
         if (!postProcessingStarted)
             throw new IllegalStateException("Must run post processing phase prior to emitting all classes.");
 
@@ -113,44 +481,267 @@ public class Processor implements Context {
                             .add(jc);
                 });
 
-        int changedFileCounter = 0;
+        final Map<List<String>, String> fingerprints;
+        if (cache == null)
+            fingerprints = EMPTY_MAP;
+        else
+            fingerprints = computeFingerprints(cgMap);
+
+        final List<FileEmitter> emitters = new ArrayList<>();
+        int skippedCodeGenerators = 0;
         for (final CodeGenerator cg : cgMap.values()) {
-            final boolean tagFwdHeaderChanged = setFileContents(
-                    module.addHeader(cg.getTagFwdHeaderName()).toPath(),
-                    cg.tagFwdHeaderFile());
-            final boolean tagHeaderChanged = setFileContents(
-                    module.addHeader(cg.getTagHeaderName()).toPath(),
-                    cg.tagHeaderFile());
-            final boolean fwdHeaderChanged = setFileContents(
-                    module.addHeader(cg.getFwdHeaderName()).toPath(),
-                    cg.fwdHeaderFile());
-            final boolean headerChanged = setFileContents(
-                    module.addHeader(cg.getHeaderName()).toPath(),
-                    cg.headerFile());
-            final boolean sourceChanged = setFileContents(
-                    module.addSource(cg.sourceName()).toPath(),
-                    cg.sourceFile());
-            changedFileCounter += (tagFwdHeaderChanged ? 1 : 0)
-                    + (tagHeaderChanged ? 1 : 0)
-                    + (fwdHeaderChanged ? 1 : 0)
-                    + (headerChanged ? 1 : 0)
-                    + (sourceChanged ? 1 : 0);
-        }
-
-        {
-            final boolean moduleHeaderChanged = setFileContents(
+            if (cache != null && cache.isUnchanged(fingerprintKey(cg.getBaseType()), fingerprints.get(cg.getBaseType()))) {
+                final List<File> files = Arrays.asList(
+                        module.addHeader(cg.getTagFwdHeaderName()),
+                        module.addHeader(cg.getTagHeaderName()),
+                        module.addHeader(cg.getFwdHeaderName()),
+                        module.addHeader(cg.getHeaderName()),
+                        module.addSource(cg.sourceName()));
+                if (files.stream().allMatch(File::isFile)) {
+                    LOG.log(Level.FINE, "Skipping {0}: fingerprint unchanged", cg.getBaseType());
+                    ++skippedCodeGenerators;
+                    continue;
+                }
+            }
+
+            emitters.add(() -> setFileContents(module.addHeader(cg.getTagFwdHeaderName()).toPath(), cg.tagFwdHeaderFile()));
+            emitters.add(() -> setFileContents(module.addHeader(cg.getTagHeaderName()).toPath(), cg.tagHeaderFile()));
+            emitters.add(() -> setFileContents(module.addHeader(cg.getFwdHeaderName()).toPath(), cg.fwdHeaderFile()));
+            emitters.add(() -> setFileContents(module.addHeader(cg.getHeaderName()).toPath(), cg.headerFile()));
+            emitters.add(() -> setFileContents(module.addSource(cg.sourceName()).toPath(), cg.sourceFile()));
+        }
+        emitters.add(() -> {
+            return setFileContents(
                     module.addHeader(CodeGenerator.moduleHeaderFilename(module.getTargetName())).toPath(),
                     CodeGenerator.moduleHeader(module.getTargetName(), unmodifiableCollection(classes.values())));
-            final boolean moduleSourceChanged = setFileContents(
+        });
+        emitters.add(() -> {
+            return setFileContents(
                     module.addSource(CodeGenerator.moduleSourceFilename(module.getTargetName())).toPath(),
                     CodeGenerator.moduleSource(module.getTargetName(), unmodifiableCollection(classes.values())));
-            changedFileCounter += (moduleHeaderChanged ? 1 : 0)
-                    + (moduleSourceChanged ? 1 : 0);
-        }
+        });
+
+        if (cache != null)
+            LOG.log(Level.INFO, "Skipping {0} of {1} code generators with unchanged fingerprint", new Object[]{skippedCodeGenerators, cgMap.size()});
 
+        final int changedFileCounter = emitFiles(emitters, pool);
+
+        // Only update the cache once all files have been written.
+        if (cache != null) {
+            fingerprints.forEach((baseType, fingerprint) -> cache.put(fingerprintKey(baseType), fingerprint));
+            cache.retainAll(fingerprints.keySet().stream()
+                    .map(Processor::fingerprintKey)
+                    .collect(Collectors.toList()));
+        }
         return changedFileCounter;
     }
 
+    /**
+     * Emit all files.
+     *
+     * @param emitters The emitters for each file.
+     * @param pool The pool on which to render files. If null, files are
+     * rendered serially on the calling thread.
+     * @return The number of files that was modified.
+     * @throws IOException If any of the file write operations fails.
+     */
+    private static int emitFiles(List<FileEmitter> emitters, ForkJoinPool pool) throws IOException {
+        if (pool == null) {
+            int changedFileCounter = 0;
+            for (final FileEmitter emitter : emitters)
+                changedFileCounter += (emitter.emit() ? 1 : 0);
+            return changedFileCounter;
+        }
+
+        LOG.log(Level.FINE, "Emitting {0} files using {1} threads", new Object[]{emitters.size(), pool.getParallelism()});
+        try {
+            return pool.submit(() -> {
+                return emitters.parallelStream()
+                        .mapToInt(emitter -> {
+                            try {
+                                return (emitter.emit() ? 1 : 0);
+                            } catch (IOException ex) {
+                                throw new UncheckedIOException(ex);
+                            }
+                        })
+                        .sum();
+            }).get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted while emitting files");
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof UncheckedIOException)
+                throw ((UncheckedIOException) ex.getCause()).getCause();
+            if (ex.getCause() instanceof RuntimeException)
+                throw (RuntimeException) ex.getCause();
+            if (ex.getCause() instanceof Error)
+                throw (Error) ex.getCause();
+            throw new IllegalStateException("file emit failed", ex.getCause());
+        }
+    }
+
+    /**
+     * Compute the fingerprint of each code generator.
+     *
+     * The fingerprint of a code generator covers the class file and the
+     * effective class configuration of each type in the code generator, as
+     * well as those of all code generators it (transitively) depends upon.
+     * It also covers the templates and the code of the generator itself.
+     *
+     * @param cgMap All code generators, by base type.
+     * @return Mapping of base type to fingerprint.
+     * @throws IOException If a class file or template could not be read.
+     */
+    private Map<List<String>, String> computeFingerprints(Map<List<String>, CodeGenerator> cgMap) throws IOException {
+        final ObjectMapper mapper = new ObjectMapper()
+                .configure(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY, true)
+                .configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true);
+
+        final Hasher templateHasher = Hashing.sha256().newHasher();
+        for (String template : Arrays.asList("codeGenerator.stg", "files.stg"))
+            templateHasher.putBytes(Resources.toByteArray(Resources.getResource(CodeGenerator.class, template)));
+        templateHasher.putBytes(Resources.toByteArray(Resources.getResource(StCtx.class, "rules.stg")));
+        templateHasher.putBytes(codeSourceHash().asBytes());
+        final HashCode templateHash = templateHasher.hash();
+
+        // Compute local hashes and direct dependencies.
+        final Map<List<String>, HashCode> localHashes = new HashMap<>();
+        final Map<List<String>, Set<List<String>>> dependencies = new HashMap<>();
+        for (final Map.Entry<List<String>, CodeGenerator> cgEntry : cgMap.entrySet()) {
+            final Hasher hasher = Hashing.sha256().newHasher();
+            for (final ClassType type : cgEntry.getValue().getTypes()) {
+                hasher.putString(type.getName(), UTF_8);
+                try (InputStream classBytes = classLoader.getResourceAsStream(type.getName().replace('.', '/') + ".class")) {
+                    if (classBytes != null)
+                        hasher.putBytes(ByteStreams.toByteArray(classBytes));
+                }
+                hasher.putString(mapper.writeValueAsString(effectiveConfig(type.getClassConfig())), UTF_8);
+            }
+            localHashes.put(cgEntry.getKey(), hasher.hash());
+
+            dependencies.put(cgEntry.getKey(), cgEntry.getValue().getTypes().stream()
+                    .flatMap(type -> {
+                        return Stream.of(
+                                type.getForwardDeclarationJavaTypes(),
+                                type.getDeclarationCompleteJavaTypes(),
+                                type.getDeclarationForwardJavaTypes(),
+                                type.getImplementationJavaTypes(),
+                                type.getFriends().stream().flatMap(Type::getAllJavaTypes))
+                                .flatMap(Function.identity());
+                    })
+                    .filter(ClassType.class::isInstance)
+                    .map(CodeGenerator::computeBaseType)
+                    .filter(cgMap::containsKey)
+                    .collect(Collectors.toSet()));
+        }
+
+        // Combine local hashes with those of all transitive dependencies.
+        final Map<List<String>, String> result = new HashMap<>();
+        for (final List<String> baseType : cgMap.keySet()) {
+            final Set<List<String>> closure = new HashSet<>();
+            final Deque<List<String>> todo = new ArrayDeque<>(singleton(baseType));
+            while (!todo.isEmpty()) {
+                final List<String> next = todo.pop();
+                if (closure.add(next))
+                    todo.addAll(dependencies.get(next));
+            }
+
+            final Hasher hasher = Hashing.sha256().newHasher()
+                    .putBytes(templateHash.asBytes())
+                    .putBytes(localHashes.get(baseType).asBytes());
+            closure.stream()
+                    .sorted(new ListComparator<>())
+                    .forEachOrdered(dependency -> {
+                        hasher.putString(fingerprintKey(dependency), UTF_8);
+                        hasher.putBytes(localHashes.get(dependency).asBytes());
+                    });
+            result.put(baseType, hasher.hash().toString());
+        }
+        return result;
+    }
+
+    /**
+     * Collect the configuration of a class, as used by the model.
+     *
+     * Unlike the {@link ClassConfig#getCfgClass() class configuration}, this
+     * includes the values inherited from the global configuration and the
+     * matching rules.
+     *
+     * @param classConfig The configuration of the class.
+     * @return The effective configuration values, by name.
+     */
+    private static Map<String, Object> effectiveConfig(ClassConfig classConfig) {
+        final Map<String, Object> result = new HashMap<>();
+        result.put("fields", classConfig.getFields());
+        result.put("final", classConfig.isFinal());
+        result.put("members", classConfig.getClassMembers().collect(Collectors.toList()));
+        result.put("var_type", classConfig.getVarType());
+        result.put("friends", classConfig.getFriends());
+        result.put("doc_string", classConfig.getDocString());
+        result.put("dev_mode", classConfig.isDevMode());
+        result.put("src_raw", classConfig.getSrcRaw());
+        result.put("inherit_constructors", classConfig.isInheritConstructors());
+        result.put("rules", classConfig.getRules());
+        return result;
+    }
+
+    /**
+     * Compute a digest of the code of the generator.
+     *
+     * The digest covers the jar or class directory that the generator is
+     * loaded from. If that can't be read, the digest is random, so that no
+     * fingerprint matches one of a previous run.
+     *
+     * @return A digest of the code of the generator.
+     * @throws IOException If the code of the generator could not be read.
+     */
+    private static HashCode codeSourceHash() throws IOException {
+        final Path location = codeSourceLocation();
+        if (location == null) {
+            LOG.log(Level.WARNING, "Unable to locate generator code, fingerprints will not match previous runs");
+            return Hashing.sha256().hashString(UUID.randomUUID().toString(), UTF_8);
+        }
+
+        final Hasher hasher = Hashing.sha256().newHasher();
+        if (Files.isDirectory(location)) {
+            final List<Path> files;
+            try (Stream<Path> walk = Files.walk(location)) {
+                files = walk
+                        .filter(Files::isRegularFile)
+                        .sorted(Comparator.comparing(file -> location.relativize(file).toString()))
+                        .collect(Collectors.toList());
+            }
+            for (final Path file : files) {
+                hasher.putString(location.relativize(file).toString(), UTF_8);
+                hasher.putBytes(Files.readAllBytes(file));
+            }
+        } else {
+            hasher.putBytes(Files.readAllBytes(location));
+        }
+        return hasher.hash();
+    }
+
+    /**
+     * Find the jar or class directory that the generator is loaded from.
+     *
+     * @return The location of the generator code, or null if it is not a file.
+     */
+    private static Path codeSourceLocation() {
+        final CodeSource codeSource = Processor.class.getProtectionDomain().getCodeSource();
+        if (codeSource == null || codeSource.getLocation() == null) return null;
+
+        try {
+            return Paths.get(codeSource.getLocation().toURI());
+        } catch (URISyntaxException | IllegalArgumentException | FileSystemNotFoundException ex) {
+            LOG.log(Level.FINE, "Generator code is not in a file", ex);
+            return null;
+        }
+    }
+
+    private static String fingerprintKey(List<String> baseType) {
+        return String.join(".", baseType);
+    }
+
     /**
      * Retrieve the number of classes in the Processor.
      *
@@ -160,8 +751,100 @@ public class Processor implements Context {
         return classes.size();
     }
 
+    /**
+     * Renders and writes a single file.
+     */
+    @FunctionalInterface
+    private static interface FileEmitter {
+        /**
+         * Render and write the file.
+         *
+         * @return True if the file contents changed, false otherwise.
+         * @throws IOException If the file could not be written.
+         */
+        public boolean emit() throws IOException;
+    }
+
+    /**
+     * Outcome of registering to wait for a resolution.
+     */
+    private static enum WaitResult {
+        /**
+         * Wait for the owner to complete the resolution.
+         */
+        WAIT,
+        /**
+         * The current thread took over the resolution and is to initialize
+         * the type.
+         */
+        STOLEN,
+        /**
+         * The owner waits for the current thread, which is to use the
+         * initializing type.
+         */
+        CYCLE
+    }
+
+    /**
+     * Resolution of a class.
+     *
+     * The type is registered before it is initialized, so that recursive and
+     * cyclic lookups can find it. Ownership and the started flag are guarded
+     * by {@link #waitingOn}.
+     */
+    private static class Resolution {
+        public Resolution(Class<?> c, JavaType type) {
+            this.c = requireNonNull(c);
+            this.type = requireNonNull(type);
+        }
+
+        /**
+         * The class that is resolved.
+         */
+        public final Class<?> c;
+        /**
+         * The resolved type.
+         */
+        public final JavaType type;
+        /**
+         * The class whose initialization required this class. Null if the
+         * class was added explicitly.
+         */
+        public volatile Class<?> referrer;
+        /**
+         * The thread that initializes the type.
+         */
+        public volatile Thread owner = Thread.currentThread();
+        /**
+         * Set once the owner starts initializing the type.
+         */
+        public boolean started = false;
+        /**
+         * Completed once the type has been initialized.
+         */
+        public final CompletableFuture<JavaType> done = new CompletableFuture<>();
+    }
+
+    /**
+     * Stack of classes being initialized by the current thread.
+     */
+    private static final ThreadLocal<Deque<Class<?>>> INITIALIZING = ThreadLocal.withInitial(ArrayDeque::new);
+
     private final ClassLoader classLoader;
-    private final Map<Class, JavaType> classes = new HashMap<>();
+    private final ConcurrentMap<Class, JavaType> classes = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Class, Resolution> resolutions = new ConcurrentHashMap<>();
+    /**
+     * Map of threads to the resolution they are waiting for.
+     *
+     * Used to detect cyclic lookups between threads.
+     */
+    private final Map<Thread, Resolution> waitingOn = new HashMap<>();
+    /**
+     * Classes that are to be resolved on a single thread, while resolving in
+     * parallel.
+     */
+    private volatile Map<Class<?>, List<Class<?>>> components = EMPTY_MAP;
     private final Config cfg;
-    private boolean postProcessingStarted = false;
+    private final ParseCache parseCache = new ParseCache();
+    private volatile boolean postProcessingStarted = false;
 }
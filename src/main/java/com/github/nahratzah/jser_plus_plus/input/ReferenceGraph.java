@@ -0,0 +1,221 @@
+package com.github.nahratzah.jser_plus_plus.input;
+
+import com.github.nahratzah.jser_plus_plus.java.ReflectUtil;
+import static com.github.nahratzah.jser_plus_plus.model.JavaType.getAllTypeParameters;
+import java.io.ObjectStreamClass;
+import java.io.ObjectStreamField;
+import java.lang.reflect.Field;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.lang.reflect.WildcardType;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import static java.util.Collections.unmodifiableList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import static java.util.Objects.requireNonNull;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Graph of references between classes, as far as reflection can see them.
+ *
+ * The references of a class are the classes named by its generic super types,
+ * by the bounds of its type parameters and by the types of its serial fields.
+ * These are the classes that initializing the class resolves. Classes that
+ * are only named by the configuration are not part of the graph.
+ *
+ * @author ariane
+ */
+final class ReferenceGraph {
+    private static final Logger LOG = Logger.getLogger(ReferenceGraph.class.getName());
+
+    private ReferenceGraph() {
+    }
+
+    /**
+     * Compute the strongly connected components of the graph.
+     *
+     * The graph consists of the roots and all classes reachable from them.
+     * Classes that refer to each other, directly or indirectly, end up in the
+     * same component.
+     *
+     * @param roots The classes from which to build the graph.
+     * @param exclude Classes that are not part of the graph. Excluded classes
+     * are not traversed.
+     * @return Mapping of each class in the graph to its component. All classes
+     * in a component map to the same list.
+     */
+    public static Map<Class<?>, List<Class<?>>> components(Collection<Class<?>> roots, Predicate<? super Class<?>> exclude) {
+        // Tarjan's algorithm, with an explicit stack instead of recursion.
+        final Map<Class<?>, Integer> index = new HashMap<>();
+        final Map<Class<?>, Integer> lowLink = new HashMap<>();
+        final Deque<Class<?>> stack = new ArrayDeque<>();
+        final Set<Class<?>> onStack = new HashSet<>();
+        final Map<Class<?>, List<Class<?>>> result = new HashMap<>();
+
+        for (final Class<?> root : roots) {
+            if (exclude.test(root) || index.containsKey(root)) continue;
+
+            final Deque<Frame> frames = new ArrayDeque<>();
+            index.put(root, index.size());
+            lowLink.put(root, index.get(root));
+            stack.push(root);
+            onStack.add(root);
+            frames.push(new Frame(root));
+
+            while (!frames.isEmpty()) {
+                final Frame frame = frames.peek();
+                if (frame.references.hasNext()) {
+                    final Class<?> next = frame.references.next();
+                    if (exclude.test(next)) continue;
+
+                    if (!index.containsKey(next)) {
+                        index.put(next, index.size());
+                        lowLink.put(next, index.get(next));
+                        stack.push(next);
+                        onStack.add(next);
+                        frames.push(new Frame(next));
+                    } else if (onStack.contains(next)) {
+                        lowLink.put(frame.c, Math.min(lowLink.get(frame.c), index.get(next)));
+                    }
+                    continue;
+                }
+
+                frames.pop();
+                if (!frames.isEmpty()) {
+                    final Class<?> parent = frames.peek().c;
+                    lowLink.put(parent, Math.min(lowLink.get(parent), lowLink.get(frame.c)));
+                }
+
+                if (Objects.equals(lowLink.get(frame.c), index.get(frame.c))) {
+                    final List<Class<?>> component = new ArrayList<>();
+                    Class<?> member;
+                    do {
+                        member = stack.pop();
+                        onStack.remove(member);
+                        component.add(member);
+                    } while (member != frame.c);
+
+                    final List<Class<?>> unmodifiableComponent = unmodifiableList(component);
+                    component.forEach(c -> result.put(c, unmodifiableComponent));
+                }
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Find the classes that a class refers to.
+     *
+     * @param c The class whose references to find.
+     * @return The classes that {@code c} refers to.
+     */
+    public static Set<Class<?>> references(Class<?> c) {
+        final Set<Class<?>> result = new LinkedHashSet<>();
+        final ReferenceCollector collector = new ReferenceCollector(result);
+
+        try {
+            if (c.getGenericSuperclass() != null)
+                ReflectUtil.visitType(c.getGenericSuperclass(), collector);
+            for (final Type iface : c.getGenericInterfaces())
+                ReflectUtil.visitType(iface, collector);
+            for (final TypeVariable<?> typeParameter : getAllTypeParameters(c)) {
+                for (final Type bound : typeParameter.getBounds())
+                    ReflectUtil.visitType(bound, collector);
+            }
+
+            for (final ObjectStreamField field : ObjectStreamClass.lookupAny(c).getFields()) {
+                // Use the generic type when the class and serialization agree on the type.
+                Type fieldType = field.getType();
+                try {
+                    final Field reflectField = c.getDeclaredField(field.getName());
+                    if (Objects.equals(reflectField.getType(), field.getType()))
+                        fieldType = reflectField.getGenericType();
+                } catch (NoSuchFieldException ex) {
+                    // Serial field without a class field.
+                }
+                ReflectUtil.visitType(fieldType, collector);
+            }
+        } catch (RuntimeException | LinkageError ex) {
+            // Resolving the class reports the problem.
+            LOG.log(Level.FINE, "Unable to find references of " + c, ex);
+        }
+
+        return result;
+    }
+
+    /**
+     * Depth first search frame.
+     */
+    private static class Frame {
+        public Frame(Class<?> c) {
+            this.c = requireNonNull(c);
+            this.references = references(c).iterator();
+        }
+
+        /**
+         * The class that is visited.
+         */
+        public final Class<?> c;
+        /**
+         * The references of the class that remain to be visited.
+         */
+        public final Iterator<Class<?>> references;
+    }
+
+    /**
+     * Type visitor that collects all classes named by a type.
+     */
+    private static class ReferenceCollector implements ReflectUtil.Visitor<Void> {
+        public ReferenceCollector(Set<Class<?>> result) {
+            this.result = requireNonNull(result);
+        }
+
+        @Override
+        public Void apply(Class<?> var) {
+            if (!var.isPrimitive()) result.add(var);
+            return null;
+        }
+
+        @Override
+        public Void apply(TypeVariable<?> var) {
+            // Bounds are collected where the variable is declared.
+            return null;
+        }
+
+        @Override
+        public Void apply(GenericArrayType var) {
+            return ReflectUtil.visitType(var.getGenericComponentType(), this);
+        }
+
+        @Override
+        public Void apply(WildcardType var) {
+            Arrays.stream(var.getUpperBounds()).forEach(t -> ReflectUtil.visitType(t, this));
+            Arrays.stream(var.getLowerBounds()).forEach(t -> ReflectUtil.visitType(t, this));
+            return null;
+        }
+
+        @Override
+        public Void apply(ParameterizedType var) {
+            ReflectUtil.visitType(var.getRawType(), this);
+            Arrays.stream(var.getActualTypeArguments()).forEach(t -> ReflectUtil.visitType(t, this));
+            return null;
+        }
+
+        private final Set<Class<?>> result;
+    }
+}
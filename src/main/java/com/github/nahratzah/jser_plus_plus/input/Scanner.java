@@ -1,8 +1,12 @@
 package com.github.nahratzah.jser_plus_plus.input;
 
+import java.io.BufferedInputStream;
 import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
 import java.net.JarURLConnection;
 import java.net.MalformedURLException;
 import java.net.URL;
@@ -13,8 +17,18 @@ import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import static java.util.Objects.requireNonNull;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.jar.JarFile;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -83,6 +97,21 @@ public class Scanner implements Closeable {
                 .distinct();
     }
 
+    /**
+     * Retrieve the names of all classes, scanning each class path entry in
+     * parallel.
+     *
+     * The names are returned in the same order as {@link #getClassNames()}.
+     *
+     * @param pool The pool on which class path entries are scanned.
+     * @return The names of all classes on the class path.
+     * @throws IOException If a class path entry can not be read.
+     */
+    public Stream<String> getClassNames(ForkJoinPool pool) throws IOException {
+        return scanRoots(loader, pool, Scanner::readClassNames)
+                .distinct();
+    }
+
     public Stream<Class<?>> getClassesNothrow() throws IOException {
         return getClassNames()
                 .map((name) -> {
@@ -115,6 +144,105 @@ public class Scanner implements Closeable {
         return result.stream();
     }
 
+    /**
+     * Retrieve all classes in accepted packages, that inherit from the given
+     * type.
+     *
+     * Unlike {@link #getClassesChecked()}, this method reads the class file
+     * headers to decide which classes are selected. Only selected classes are
+     * loaded. Anonymous classes are never selected.
+     *
+     * @param superTypeName The name of the type from which selected classes
+     * must inherit. The type itself is also selected.
+     * @param packageFilter Predicate on package names, deciding which classes
+     * are acceptable.
+     * @return All classes that match the criteria.
+     * @throws IOException If a class file can not be read.
+     * @throws ClassNotFoundException If a selected class could not be loaded.
+     */
+    public Stream<Class<?>> getInheritingClasses(String superTypeName, Predicate<? super String> packageFilter) throws IOException, ClassNotFoundException {
+        return getInheritingClasses(superTypeName, packageFilter, null);
+    }
+
+    /**
+     * Retrieve all classes in accepted packages, that inherit from the given
+     * type.
+     *
+     * Unlike {@link #getClassesChecked()}, this method reads the class file
+     * headers to decide which classes are selected. Only selected classes are
+     * loaded. Anonymous classes are never selected.
+     *
+     * @param superTypeName The name of the type from which selected classes
+     * must inherit. The type itself is also selected.
+     * @param packageFilter Predicate on package names, deciding which classes
+     * are acceptable.
+     * @param pool If not null, class path entries are scanned in parallel on
+     * this pool.
+     * @return All classes that match the criteria.
+     * @throws IOException If a class file can not be read.
+     * @throws ClassNotFoundException If a selected class could not be loaded.
+     */
+    public Stream<Class<?>> getInheritingClasses(String superTypeName, Predicate<? super String> packageFilter, ForkJoinPool pool) throws IOException, ClassNotFoundException {
+        final Map<String, ClassFileHeader> headers = new LinkedHashMap<>();
+        try (final Stream<ClassFileHeader> headerStream = (pool == null ? getClassHeaders(loader) : scanRoots(loader, pool, Scanner::readClassHeaders))) {
+            headerStream.forEachOrdered(header -> headers.putIfAbsent(header.getName(), header));
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        }
+        LOG.log(Level.FINE, "Read {0} class file headers", headers.size());
+
+        final InheritanceResolver resolver = new InheritanceResolver(superTypeName, headers);
+        final Collection<Class<?>> result = new ArrayList<>();
+        for (ClassFileHeader header : headers.values()) {
+            if (header.isAnonymous()) continue;
+            if (!packageFilter.test(header.getPackageName())) continue;
+            if (!resolver.inherits(header.getName())) continue;
+            result.add(Class.forName(header.getName(), false, loader));
+        }
+        LOG.log(Level.FINE, "Selected {0} of {1} classes", new Object[]{result.size(), headers.size()});
+        return result.stream();
+    }
+
+    /**
+     * Resolves if a class inherits from a given type, using class file
+     * headers.
+     */
+    private class InheritanceResolver {
+        public InheritanceResolver(String superTypeName, Map<String, ClassFileHeader> headers) {
+            this.superTypeName = requireNonNull(superTypeName);
+            this.headers = requireNonNull(headers);
+        }
+
+        public boolean inherits(String name) throws ClassNotFoundException {
+            if (superTypeName.equals(name)) return true;
+
+            final Boolean cached = inherits.get(name);
+            if (cached != null) return cached;
+
+            final ClassFileHeader header = headers.get(name);
+            boolean result = false;
+            if (header == null) {
+                // Type is not on the scanned class path, fall back to reflection.
+                if (superType == null)
+                    superType = Class.forName(superTypeName, false, loader);
+                result = superType.isAssignableFrom(Class.forName(name, false, loader));
+            } else {
+                if (header.getSuperName().isPresent())
+                    result = inherits(header.getSuperName().get());
+                for (Iterator<String> iter = header.getInterfaceNames().iterator(); !result && iter.hasNext();)
+                    result = inherits(iter.next());
+            }
+
+            inherits.put(name, result);
+            return result;
+        }
+
+        private final String superTypeName;
+        private final Map<String, ClassFileHeader> headers;
+        private final Map<String, Boolean> inherits = new HashMap<>();
+        private Class<?> superType;
+    }
+
     @Override
     public void close() throws IOException {
         if (doClose && loader instanceof Closeable)
@@ -211,6 +339,214 @@ public class Scanner implements Closeable {
                 .map(filename -> filename.replace('/', '.'));
     }
 
+    private static Stream<ClassFileHeader> getClassHeaders(ClassLoader loader) throws IOException {
+        final Stream<ClassFileHeader> parentHeaders;
+        if (loader.getParent() != null)
+            parentHeaders = getClassHeaders(loader.getParent());
+        else
+            parentHeaders = Stream.empty();
+
+        if (loader instanceof URLClassLoader)
+            return Stream.concat(getClassHeaders((URLClassLoader) loader), parentHeaders);
+        else
+            throw new UnsupportedOperationException("Cannot process classloader of type " + loader.getClass().getName());
+    }
+
+    private static Stream<ClassFileHeader> getClassHeaders(URLClassLoader loader) throws IOException {
+        LOG.log(Level.FINE, "Scanning class loader {0}", loader);
+        final Collection<Stream<ClassFileHeader>> headers = new ArrayList<>();
+        for (URL url : loader.getURLs())
+            headers.add(getClassHeaders(url));
+        return headers.stream()
+                .flatMap(Function.identity());
+    }
+
+    private static Stream<ClassFileHeader> getClassHeaders(URL url) throws IOException {
+        LOG.log(Level.FINE, "Scanning class loader URL {0}", url);
+
+        if ("file".equals(url.getProtocol())) {
+            final File path = new File(url.getPath());
+            if (path.isDirectory())
+                return getClassHeaders(new File(url.getPath()));
+        }
+
+        final URL jarUrl = new URL("jar:" + url.toString() + "!/");
+        LOG.log(Level.FINE, "Replaced URL with {0}", jarUrl);
+
+        final URLConnection conn = jarUrl.openConnection();
+        if (conn instanceof JarURLConnection)
+            return getClassHeaders((JarURLConnection) conn);
+        else
+            throw new UnsupportedOperationException("Cannot process URL " + url);
+    }
+
+    private static Stream<ClassFileHeader> getClassHeaders(File dir) throws IOException {
+        final Path root = dir.toPath().toAbsolutePath();
+        return Files.walk(root)
+                .filter(path -> Files.isRegularFile(path))
+                .filter(path -> path.toString().endsWith(CLASS_SUFFIX))
+                .map(path -> {
+                    try (InputStream in = new BufferedInputStream(Files.newInputStream(path))) {
+                        return ClassFileHeader.read(in);
+                    } catch (IOException ex) {
+                        throw new UncheckedIOException("unable to read class file " + path, ex);
+                    }
+                });
+    }
+
+    private static Stream<ClassFileHeader> getClassHeaders(JarURLConnection conn) throws IOException {
+        conn.connect();
+        return getClassHeaders(conn.getJarFile(), conn.getURL());
+    }
+
+    /**
+     * Read the headers of all class files in a jar file.
+     *
+     * @param file The jar file to read.
+     * @param url The URL of the jar file, used in error messages.
+     * @return Stream of class file headers. Read errors are thrown as
+     * {@link UncheckedIOException}.
+     */
+    private static Stream<ClassFileHeader> getClassHeaders(JarFile file, URL url) {
+        return file.stream()
+                .filter(jarEntry -> !jarEntry.isDirectory())
+                .filter(jarEntry -> jarEntry.getName().endsWith(CLASS_SUFFIX))
+                .filter(jarEntry -> !jarEntry.getName().startsWith("META-INF/"))
+                .map(jarEntry -> {
+                    try (InputStream in = new BufferedInputStream(file.getInputStream(jarEntry))) {
+                        return ClassFileHeader.read(in);
+                    } catch (IOException ex) {
+                        throw new UncheckedIOException("unable to read class file " + jarEntry.getName() + " in " + url, ex);
+                    }
+                });
+    }
+
+    /**
+     * Scans a single class path entry.
+     *
+     * @param <T> The type of the scan result.
+     */
+    @FunctionalInterface
+    private static interface RootScanner<T> {
+        public List<T> scan(URL root) throws IOException;
+    }
+
+    /**
+     * Retrieve all class path entries of the class loader.
+     *
+     * Entries are in the same order as {@link #getClassNames(java.lang.ClassLoader)}
+     * visits them: the entries of a class loader precede those of its parent.
+     *
+     * @param loader The class loader to examine.
+     * @return List of class path entries.
+     */
+    private static List<URL> getRoots(ClassLoader loader) {
+        final List<URL> roots = new ArrayList<>();
+        for (ClassLoader l = loader; l != null; l = l.getParent()) {
+            if (l instanceof URLClassLoader)
+                roots.addAll(Arrays.asList(((URLClassLoader) l).getURLs()));
+            else
+                throw new UnsupportedOperationException("Cannot process classloader of type " + l.getClass().getName());
+        }
+        return roots;
+    }
+
+    /**
+     * Scan each class path entry as a separate task on the pool.
+     *
+     * The results are concatenated in class path order.
+     *
+     * @param <T> The type of the scan result.
+     * @param loader The class loader to scan.
+     * @param pool The pool on which to run the scan tasks.
+     * @param scanner Scan implementation for a single class path entry.
+     * @return Concatenation of all scan results.
+     * @throws IOException If any of the class path entries fails to scan.
+     */
+    private static <T> Stream<T> scanRoots(ClassLoader loader, ForkJoinPool pool, RootScanner<T> scanner) throws IOException {
+        final List<ForkJoinTask<List<T>>> tasks = new ArrayList<>();
+        for (URL root : getRoots(loader))
+            tasks.add(pool.submit(() -> scanner.scan(root)));
+
+        final List<T> result = new ArrayList<>();
+        try {
+            for (ForkJoinTask<List<T>> task : tasks)
+                result.addAll(task.get());
+        } catch (InterruptedException ex) {
+            tasks.forEach(task -> task.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted while scanning class path");
+        } catch (ExecutionException ex) {
+            tasks.forEach(task -> task.cancel(true));
+            if (ex.getCause() instanceof IOException)
+                throw (IOException) ex.getCause();
+            if (ex.getCause() instanceof UncheckedIOException)
+                throw ((UncheckedIOException) ex.getCause()).getCause();
+            if (ex.getCause() instanceof RuntimeException)
+                throw (RuntimeException) ex.getCause();
+            if (ex.getCause() instanceof Error)
+                throw (Error) ex.getCause();
+            throw new IllegalStateException("class path scan failed", ex.getCause());
+        }
+        return result.stream();
+    }
+
+    /**
+     * Open a jar file.
+     *
+     * Local jar files are opened directly, bypassing the jar URL connection
+     * cache.
+     *
+     * @param url The URL of the jar file.
+     * @return The opened jar file. Must be closed by the caller.
+     * @throws IOException If the jar file can not be opened.
+     */
+    private static JarFile openJarFile(URL url) throws IOException {
+        if ("file".equals(url.getProtocol()))
+            return new JarFile(new File(url.getPath()));
+
+        final URLConnection conn = new URL("jar:" + url.toString() + "!/").openConnection();
+        if (!(conn instanceof JarURLConnection))
+            throw new UnsupportedOperationException("Cannot process URL " + url);
+        conn.setUseCaches(false);
+        return ((JarURLConnection) conn).getJarFile();
+    }
+
+    private static List<String> readClassNames(URL url) throws IOException {
+        LOG.log(Level.FINE, "Scanning class loader URL {0}", url);
+
+        if ("file".equals(url.getProtocol()) && new File(url.getPath()).isDirectory()) {
+            try (final Stream<String> names = getClassNames(new File(url.getPath()))) {
+                return names.collect(Collectors.toList());
+            }
+        }
+
+        try (final JarFile file = openJarFile(url)) {
+            return file.stream()
+                    .filter(jarEntry -> !jarEntry.isDirectory())
+                    .map(jarEntry -> jarEntry.getName())
+                    .filter(filename -> filename.endsWith(CLASS_SUFFIX))
+                    .map(filename -> filename.substring(0, filename.length() - CLASS_SUFFIX.length()))
+                    .map(filename -> filename.replace('/', '.'))
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private static List<ClassFileHeader> readClassHeaders(URL url) throws IOException {
+        LOG.log(Level.FINE, "Scanning class loader URL {0}", url);
+
+        if ("file".equals(url.getProtocol()) && new File(url.getPath()).isDirectory()) {
+            try (final Stream<ClassFileHeader> headers = getClassHeaders(new File(url.getPath()))) {
+                return headers.collect(Collectors.toList());
+            }
+        }
+
+        try (final JarFile file = openJarFile(url);
+                final Stream<ClassFileHeader> headers = getClassHeaders(file, url)) {
+            return headers.collect(Collectors.toList());
+        }
+    }
+
     private final ClassLoader loader;
     private final boolean doClose = false;
 }
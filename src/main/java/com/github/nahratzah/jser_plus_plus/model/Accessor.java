@@ -172,6 +172,66 @@ public class Accessor {
                 .filter(type -> !(type instanceof PrimitiveType));
     }
 
+    /**
+     * Retrieve the types that must be complete to implement the accessor.
+     *
+     * The implementation converts to the erased type of each
+     * {@link #getImplementationTypes() implementation type}. Template
+     * arguments of those types are only used as tags, for which a forward
+     * declaration suffices.
+     *
+     * @return The types that must be complete in the implementation.
+     */
+    public Stream<JavaType> getImplementationCompleteTypes() {
+        return Stream.concat(
+                constructors.stream().flatMap(AccessorConstructor::getImplementationTypes),
+                methods.stream().flatMap(AccessorMethod::getImplementationTypes))
+                .flatMap(Accessor::erasedJavaTypes)
+                .filter(type -> !(type instanceof PrimitiveType));
+    }
+
+    /**
+     * Find the java types that a type is erased to.
+     *
+     * Types that may use their java types in arbitrary ways, such as C++
+     * types, yield all their java types.
+     *
+     * @param type The type to erase.
+     * @return The java types of the erased type.
+     */
+    private static Stream<JavaType> erasedJavaTypes(Type type) {
+        if (type instanceof ConstType)
+            return erasedJavaTypes(((ConstType) type).getType());
+        if (!(type instanceof BoundTemplate)) return type.getAllJavaTypes();
+
+        return ((BoundTemplate) type).visit(new BoundTemplate.Visitor<Stream<JavaType>>() {
+            @Override
+            public Stream<JavaType> apply(BoundTemplate.VarBinding b) {
+                return Stream.empty();
+            }
+
+            @Override
+            public Stream<JavaType> apply(BoundTemplate.ClassBinding<?> b) {
+                return Stream.of(b.getType());
+            }
+
+            @Override
+            public Stream<JavaType> apply(BoundTemplate.ArrayBinding b) {
+                return erasedJavaTypes(b.getType());
+            }
+
+            @Override
+            public Stream<JavaType> apply(BoundTemplate.Any b) {
+                return b.getAllJavaTypes();
+            }
+
+            @Override
+            public Stream<JavaType> apply(BoundTemplate.MultiType b) {
+                return b.getTypes().stream().flatMap(Accessor::erasedJavaTypes);
+            }
+        });
+    }
+
     /**
      * Predicate that tests for static methods.
      */
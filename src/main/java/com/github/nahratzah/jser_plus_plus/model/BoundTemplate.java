@@ -3,9 +3,12 @@ package com.github.nahratzah.jser_plus_plus.model;
 import com.github.nahratzah.jser_plus_plus.input.Context;
 import com.github.nahratzah.jser_plus_plus.misc.ListComparator;
 import com.google.common.collect.Streams;
+import java.util.ArrayList;
 import java.util.Collection;
 import static java.util.Collections.EMPTY_LIST;
 import static java.util.Collections.singleton;
+import static java.util.Collections.unmodifiableList;
+import static java.util.Collections.unmodifiableSortedSet;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
@@ -23,6 +26,8 @@ import java.util.stream.Stream;
 /**
  * A template with bound names.
  *
+ * Bound templates are immutable, so equal templates can be shared.
+ *
  * @author ariane
  */
 public interface BoundTemplate extends Type, Comparable<BoundTemplate> {
@@ -189,21 +194,14 @@ public interface BoundTemplate extends Type, Comparable<BoundTemplate> {
      * Binding to a template variable.
      */
     public static final class VarBinding implements BoundTemplate {
-        public VarBinding() {
-        }
-
         public VarBinding(String name) {
-            this.name = name;
+            this.name = requireNonNull(name);
         }
 
         public String getName() {
             return name;
         }
 
-        public void setName(String name) {
-            this.name = name;
-        }
-
         @Override
         public Stream<JavaType> getAllJavaTypes() {
             return Stream.empty();
@@ -218,7 +216,7 @@ public interface BoundTemplate extends Type, Comparable<BoundTemplate> {
         public BoundTemplate rebind(Map<String, ? extends BoundTemplate> bindings) {
             final BoundTemplate replacement = bindings.get(getName());
             if (replacement != null) return replacement;
-            return new VarBinding(getName());
+            return this;
         }
 
         @Override
@@ -271,7 +269,7 @@ public interface BoundTemplate extends Type, Comparable<BoundTemplate> {
             return getName();
         }
 
-        private String name;
+        private final String name;
     }
 
     /**
@@ -281,30 +279,24 @@ public interface BoundTemplate extends Type, Comparable<BoundTemplate> {
      * {@link ClassBinding}.
      */
     public static final class ClassBinding<T extends JavaType> implements BoundTemplate {
-        public ClassBinding() {
-        }
-
         public ClassBinding(T type, List<BoundTemplate> bindings) {
-            this.type = type;
-            this.bindings = bindings;
+            this.type = requireNonNull(type);
+            this.bindings = unmodifiableList(new ArrayList<>(bindings));
+
+            int hash = 3;
+            hash = 97 * hash + Objects.hashCode(this.type);
+            hash = 97 * hash + Objects.hashCode(this.bindings);
+            this.hashCode = hash;
         }
 
         public T getType() {
             return type;
         }
 
-        public void setType(T type) {
-            this.type = type;
-        }
-
         public List<BoundTemplate> getBindings() {
             return bindings;
         }
 
-        public void setBindings(List<BoundTemplate> bindings) {
-            this.bindings = bindings;
-        }
-
         /**
          * Retrieve a mapping between the types in the class and its bound
          * arguments.
@@ -346,7 +338,9 @@ public interface BoundTemplate extends Type, Comparable<BoundTemplate> {
             final List<BoundTemplate> newBindings = getBindings().stream()
                     .map(binding -> binding.rebind(bindings))
                     .collect(Collectors.toList());
-            return new ClassBinding<>(getType(), newBindings);
+            if (BoundTemplateInterner.sameElements(getBindings(), newBindings))
+                return this;
+            return BoundTemplateInterner.intern(new ClassBinding<>(getType(), newBindings));
         }
 
         @Override
@@ -378,10 +372,7 @@ public interface BoundTemplate extends Type, Comparable<BoundTemplate> {
 
         @Override
         public int hashCode() {
-            int hash = 3;
-            hash = 97 * hash + Objects.hashCode(this.type);
-            hash = 97 * hash + Objects.hashCode(this.bindings);
-            return hash;
+            return hashCode;
         }
 
         @Override
@@ -390,6 +381,7 @@ public interface BoundTemplate extends Type, Comparable<BoundTemplate> {
             if (obj == null) return false;
             if (getClass() != obj.getClass()) return false;
             final ClassBinding<?> other = (ClassBinding<?>) obj;
+            if (this.hashCode != other.hashCode) return false;
             if (!Objects.equals(this.type, other.type)) return false;
             if (!Objects.equals(this.bindings, other.bindings)) return false;
             return true;
@@ -411,50 +403,45 @@ public interface BoundTemplate extends Type, Comparable<BoundTemplate> {
         @Override
         public String toString() {
             final String bindingsStr;
-            if (bindings == null || bindings.isEmpty())
+            if (bindings.isEmpty())
                 bindingsStr = "";
             else
                 bindingsStr = bindings.stream().map(Object::toString).collect(Collectors.joining(", ", "<", ">"));
             return type.getName() + bindingsStr;
         }
 
-        private T type;
-        private List<BoundTemplate> bindings;
+        private final T type;
+        private final List<BoundTemplate> bindings;
+        private final int hashCode;
     }
 
     /**
      * Binding to an array.
      */
     public static final class ArrayBinding implements BoundTemplate {
-        public ArrayBinding() {
-        }
-
         public ArrayBinding(BoundTemplate type, int extents) {
             if (type instanceof ArrayBinding) {
                 this.type = ((ArrayBinding) type).getType();
                 this.extents = ((ArrayBinding) type).getExtents() + extents;
             } else {
-                this.type = type;
+                this.type = requireNonNull(type);
                 this.extents = extents;
             }
+
+            int hash = 7;
+            hash = 83 * hash + Objects.hashCode(this.type);
+            hash = 83 * hash + this.extents;
+            this.hashCode = hash;
         }
 
         public BoundTemplate getType() {
             return type;
         }
 
-        public void setType(BoundTemplate type) {
-            this.type = type;
-        }
-
         public int getExtents() {
             return extents;
         }
 
-        public void setExtents(int extents) {
-            this.extents = extents;
-        }
-
         @Override
         public Stream<JavaType> getAllJavaTypes() {
             return getType().getAllJavaTypes();
@@ -467,7 +454,9 @@ public interface BoundTemplate extends Type, Comparable<BoundTemplate> {
 
         @Override
         public ArrayBinding rebind(Map<String, ? extends BoundTemplate> bindings) {
-            return new ArrayBinding(getType().rebind(bindings), getExtents());
+            final BoundTemplate newType = getType().rebind(bindings);
+            if (newType == getType()) return this;
+            return BoundTemplateInterner.intern(new ArrayBinding(newType, getExtents()));
         }
 
         @Override
@@ -491,10 +480,7 @@ public interface BoundTemplate extends Type, Comparable<BoundTemplate> {
 
         @Override
         public int hashCode() {
-            int hash = 7;
-            hash = 83 * hash + Objects.hashCode(this.type);
-            hash = 83 * hash + this.extents;
-            return hash;
+            return hashCode;
         }
 
         @Override
@@ -503,6 +489,7 @@ public interface BoundTemplate extends Type, Comparable<BoundTemplate> {
             if (obj == null) return false;
             if (getClass() != obj.getClass()) return false;
             final ArrayBinding other = (ArrayBinding) obj;
+            if (this.hashCode != other.hashCode) return false;
             if (this.extents != other.extents) return false;
             if (!Objects.equals(this.type, other.type)) return false;
             return true;
@@ -527,8 +514,9 @@ public interface BoundTemplate extends Type, Comparable<BoundTemplate> {
             return typeStr + IntStream.range(0, extents).mapToObj(i -> "[]").collect(Collectors.joining());
         }
 
-        private BoundTemplate type;
-        private int extents;
+        private final BoundTemplate type;
+        private final int extents;
+        private final int hashCode;
     }
 
     /**
@@ -540,26 +528,23 @@ public interface BoundTemplate extends Type, Comparable<BoundTemplate> {
         }
 
         public Any(Collection<BoundTemplate> superTypes, Collection<BoundTemplate> extendTypes) {
-            this.superTypes = new TreeSet<>(requireNonNull(superTypes));
-            this.extendTypes = new TreeSet<>(requireNonNull(extendTypes));
+            this.superTypes = unmodifiableSortedSet(new TreeSet<>(requireNonNull(superTypes)));
+            this.extendTypes = unmodifiableSortedSet(new TreeSet<>(requireNonNull(extendTypes)));
+
+            int hash = 3;
+            hash = 53 * hash + Objects.hashCode(this.superTypes);
+            hash = 53 * hash + Objects.hashCode(this.extendTypes);
+            this.hashCode = hash;
         }
 
         public Collection<BoundTemplate> getSuperTypes() {
             return superTypes;
         }
 
-        public void setSuperTypes(Collection<BoundTemplate> superTypes) {
-            this.superTypes = new TreeSet<>(superTypes);
-        }
-
         public Collection<BoundTemplate> getExtendTypes() {
             return extendTypes;
         }
 
-        public void setExtendTypes(Collection<BoundTemplate> extendTypes) {
-            this.extendTypes = new TreeSet<>(extendTypes);
-        }
-
         @Override
         public Stream<JavaType> getAllJavaTypes() {
             return Stream.concat(getSuperTypes().stream(), getExtendTypes().stream())
@@ -582,7 +567,10 @@ public interface BoundTemplate extends Type, Comparable<BoundTemplate> {
             final List<BoundTemplate> newExtendTypes = getExtendTypes().stream()
                     .map(type -> type.rebind(bindings))
                     .collect(Collectors.toList());
-            return new Any(newSuperTypes, newExtendTypes);
+            if (BoundTemplateInterner.sameElements(getSuperTypes(), newSuperTypes)
+                    && BoundTemplateInterner.sameElements(getExtendTypes(), newExtendTypes))
+                return this;
+            return BoundTemplateInterner.intern(new Any(newSuperTypes, newExtendTypes));
         }
 
         @Override
@@ -605,10 +593,7 @@ public interface BoundTemplate extends Type, Comparable<BoundTemplate> {
 
         @Override
         public int hashCode() {
-            int hash = 3;
-            hash = 53 * hash + Objects.hashCode(this.superTypes);
-            hash = 53 * hash + Objects.hashCode(this.extendTypes);
-            return hash;
+            return hashCode;
         }
 
         @Override
@@ -617,6 +602,7 @@ public interface BoundTemplate extends Type, Comparable<BoundTemplate> {
             if (obj == null) return false;
             if (getClass() != obj.getClass()) return false;
             final Any other = (Any) obj;
+            if (this.hashCode != other.hashCode) return false;
             if (!Objects.equals(this.superTypes, other.superTypes))
                 return false;
             if (!Objects.equals(this.extendTypes, other.extendTypes))
@@ -664,15 +650,16 @@ public interface BoundTemplate extends Type, Comparable<BoundTemplate> {
             return spec.toString();
         }
 
-        private SortedSet<BoundTemplate> superTypes;
-        private SortedSet<BoundTemplate> extendTypes;
+        private final SortedSet<BoundTemplate> superTypes;
+        private final SortedSet<BoundTemplate> extendTypes;
+        private final int hashCode;
     }
 
     public static final class MultiType implements BoundTemplate {
         public static BoundTemplate maybeMakeMultiType(Collection<? extends BoundTemplate> types) {
             if (types.isEmpty()) return new BoundTemplate.Any();
             if (types.size() == 1) return types.iterator().next();
-            return new MultiType(types);
+            return BoundTemplateInterner.intern(new MultiType(types));
         }
 
         public MultiType() {
@@ -680,17 +667,17 @@ public interface BoundTemplate extends Type, Comparable<BoundTemplate> {
         }
 
         public MultiType(Collection<? extends BoundTemplate> types) {
-            this.types = new TreeSet<>(requireNonNull(types));
+            this.types = unmodifiableSortedSet(new TreeSet<>(requireNonNull(types)));
+
+            int hash = 3;
+            hash = 47 * hash + Objects.hashCode(this.types);
+            this.hashCode = hash;
         }
 
         public Set<BoundTemplate> getTypes() {
             return types;
         }
 
-        public void setTypes(Collection<? extends BoundTemplate> types) {
-            this.types = new TreeSet<>(requireNonNull(types));
-        }
-
         @Override
         public Stream<JavaType> getAllJavaTypes() {
             return types.stream()
@@ -707,9 +694,11 @@ public interface BoundTemplate extends Type, Comparable<BoundTemplate> {
 
         @Override
         public MultiType rebind(Map<String, ? extends BoundTemplate> bindings) {
-            return new MultiType(types.stream()
+            final List<BoundTemplate> newTypes = types.stream()
                     .map(type -> type.rebind(bindings))
-                    .collect(Collectors.toList()));
+                    .collect(Collectors.toList());
+            if (BoundTemplateInterner.sameElements(types, newTypes)) return this;
+            return BoundTemplateInterner.intern(new MultiType(newTypes));
         }
 
         @Override
@@ -733,9 +722,7 @@ public interface BoundTemplate extends Type, Comparable<BoundTemplate> {
 
         @Override
         public int hashCode() {
-            int hash = 3;
-            hash = 47 * hash + Objects.hashCode(this.types);
-            return hash;
+            return hashCode;
         }
 
         @Override
@@ -744,6 +731,7 @@ public interface BoundTemplate extends Type, Comparable<BoundTemplate> {
             if (obj == null) return false;
             if (getClass() != obj.getClass()) return false;
             final MultiType other = (MultiType) obj;
+            if (this.hashCode != other.hashCode) return false;
             if (!Objects.equals(this.types, other.types)) return false;
             return true;
         }
@@ -766,10 +754,11 @@ public interface BoundTemplate extends Type, Comparable<BoundTemplate> {
                     .collect(Collectors.joining(" & ", "[", "]"));
         }
 
-        private Set<BoundTemplate> types;
+        private final SortedSet<BoundTemplate> types;
+        private final int hashCode;
     }
 
     public static Type fromString(String text, Context ctx, Map<String, ? extends BoundTemplate> variables, BoundTemplate.ClassBinding<?> thisType) {
-        return new BoundTemplateParser(ctx, variables, thisType).parse(text);
+        return BoundTemplateParser.parse(ctx, variables, thisType, text);
     }
 }
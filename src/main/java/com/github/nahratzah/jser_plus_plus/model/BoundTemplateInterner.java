@@ -0,0 +1,54 @@
+package com.github.nahratzah.jser_plus_plus.model;
+
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Keeps track of canonical instances of {@link BoundTemplate bound templates}.
+ *
+ * Rebinding creates many equal templates; interning them means equal
+ * templates share one instance, so equality tests usually reduce to a
+ * reference comparison.
+ *
+ * Bound templates are immutable, so interned templates can be shared freely.
+ *
+ * @author ariane
+ */
+final class BoundTemplateInterner {
+    private static final Interner<BoundTemplate> INTERNER = Interners.newWeakInterner();
+
+    private BoundTemplateInterner() {
+    }
+
+    /**
+     * Retrieve the canonical instance of a bound template.
+     *
+     * @param <T> The type of the template.
+     * @param template The template to intern.
+     * @return A bound template equal to the argument.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T extends BoundTemplate> T intern(T template) {
+        return (T) INTERNER.intern(template);
+    }
+
+    /**
+     * Test if two collections hold the same instances, in the same order.
+     *
+     * Used by rebind operations to detect that nothing changed.
+     *
+     * @param x A collection.
+     * @param y Another collection.
+     * @return True if both collections hold the same instances.
+     */
+    public static boolean sameElements(Iterable<?> x, List<?> y) {
+        final Iterator<?> xIter = x.iterator();
+        final Iterator<?> yIter = y.iterator();
+        while (xIter.hasNext() && yIter.hasNext()) {
+            if (xIter.next() != yIter.next()) return false;
+        }
+        return !xIter.hasNext() && !yIter.hasNext();
+    }
+}
@@ -42,7 +42,6 @@ class BoundTemplateParser {
     private static final Pattern ROUND_BRACKET_OPEN = startWith("\\s*" + Pattern.quote("("));
     private static final Pattern CONST_STARTS = startWith("\\s*" + Pattern.quote("const") + "\\s+");
     private final Pattern VARIABLES_STARTS;
-
     /**
      * Context for class resolution.
      */
@@ -72,6 +71,31 @@ class BoundTemplateParser {
                     .collect(Collectors.joining("|", "(?:", ")")));
     }
 
+    /**
+     * Parse text into a type, using previously parsed results if possible.
+     *
+     * Parsed types are cached in the {@link Context#getParseCache() parse cache}
+     * of the context, if it has one.
+     *
+     * @param ctx Context for class resolution.
+     * @param variables Mapping for variables.
+     * @param thisType Current type, for `this`.
+     * @param text The text to parse.
+     * @return The type described by the text.
+     */
+    public static Type parse(Context ctx, Map<String, ? extends BoundTemplate> variables, BoundTemplate.ClassBinding<?> thisType, String text) {
+        final ParseCache cache = ctx.getParseCache();
+        if (cache == null)
+            return new BoundTemplateParser(ctx, variables, thisType).parse(text);
+
+        final Type cached = cache.getIfPresent(text, variables, thisType);
+        if (cached != null) return cached;
+
+        final Type parsed = new BoundTemplateParser(ctx, variables, thisType).parse(text);
+        cache.put(text, variables, thisType, parsed);
+        return parsed;
+    }
+
     public Type parse(CharSequence text) {
         final boolean wrapConst;
         this.s = requireNonNull(text);
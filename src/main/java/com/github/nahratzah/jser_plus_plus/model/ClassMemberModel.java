@@ -30,6 +30,7 @@ import java.util.logging.Logger;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import org.stringtemplate.v4.ST;
+import org.stringtemplate.v4.STWriter;
 
 /**
  * Model of a class member.
@@ -558,9 +559,7 @@ public interface ClassMemberModel {
                             Collections::unmodifiableList));
 
             final BiFunction<String, Collection<Type>, String> basicRenderer = (text, collection) -> {
-                return new ST(StCtx.contextGroup(ctx, allVariables, cdef.getBoundType(), collection::add), text)
-                        .add("model", cdef)
-                        .render(Locale.ROOT, 78);
+                return StCtx.render(ctx, allVariables, cdef.getBoundType(), collection::add, text, singletonMap("model", cdef), 78);
             };
 
             this.declRenderer = (text) -> basicRenderer.apply(text, this.declarationTypes);
@@ -589,8 +588,7 @@ public interface ClassMemberModel {
                     this.argumentTypes);
 
             {
-                final Map<String, BoundTemplate> classSquashMap = cdef.getErasedTemplateArguments().stream()
-                        .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+                final Map<String, BoundTemplate> classSquashMap = cdef.getErasedTemplateBindings();
                 final Map<String, BoundTemplate> methodSquashMap = generics.getErasedMethodGenerics().entrySet().stream()
                         .collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue().rebind(classSquashMap)));
                 final Map<String, BoundTemplate> squashMap = Stream.concat(classSquashMap.entrySet().stream(), methodSquashMap.entrySet().stream())
@@ -607,10 +605,10 @@ public interface ClassMemberModel {
                 if (!this.generics.isGenericsMethod()) {
                     bodyPreamble = "";
                 } else {
-                    bodyPreamble = new ST(StCtx.contextGroup(ctx, cdef.getTemplateArgumentNames().stream().collect(Collectors.toMap(Function.identity(), BoundTemplate.VarBinding::new)), cdef.getBoundType(), implementationTypes::add),
-                            "$generics:{entry|using $entry.key$ = $boundTemplateType(entry.value, \"style=type\")$;}; separator=\"\\n\"$$\"\\n\"$")
-                            .add("generics", this.generics.getErasedMethodGenerics().entrySet())
-                            .render(Locale.ROOT);
+                    bodyPreamble = StCtx.render(ctx, cdef.getTemplateArgumentNames().stream().collect(Collectors.toMap(Function.identity(), BoundTemplate.VarBinding::new)), cdef.getBoundType(), implementationTypes::add,
+                            "$generics:{entry|using $entry.key$ = $boundTemplateType(entry.value, \"style=type\")$;}; separator=\"\\n\"$$\"\\n\"$",
+                            singletonMap("generics", this.generics.getErasedMethodGenerics().entrySet()),
+                            STWriter.NO_WRAP);
                 }
 
                 String renderedBody = renderImpl(body);
@@ -46,11 +46,13 @@ import static java.util.Collections.singletonMap;
 import static java.util.Collections.unmodifiableCollection;
 import static java.util.Collections.unmodifiableList;
 import static java.util.Collections.unmodifiableMap;
+import static java.util.Collections.unmodifiableSet;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -70,6 +72,7 @@ import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import org.stringtemplate.v4.ST;
+import org.stringtemplate.v4.STWriter;
 
 /**
  * Models a normal class.
@@ -112,6 +115,7 @@ public class ClassType implements JavaType {
     public void init(Context ctx, Config cfg) {
         LOG.log(Level.FINE, "Initializing {0}", c);
         final ClassConfig classCfg = cfg.getConfigForClass(c);
+        this.classConfig = classCfg;
 
         final List<? extends TypeVariable<? extends Class<?>>> cTypeParameters = getAllTypeParameters(this.c);
         LOG.log(Level.FINE, "Type parameters: {0}", cTypeParameters);
@@ -296,9 +300,7 @@ public class ClassType implements JavaType {
                         final Map<String, BoundTemplate.VarBinding> variablesMap = getTemplateArgumentNames().stream()
                                 .collect(Collectors.toMap(Function.identity(), BoundTemplate.VarBinding::new));
                         final Collection<Type> newDeclTypes = new HashSet<>(); // XXX use
-                        iField.setDefault(new ST(StCtx.contextGroup(ctx, variablesMap, getBoundType(), newDeclTypes::add), fieldCfg.getDefault())
-                                .add("model", this)
-                                .render(Locale.ROOT));
+                        iField.setDefault(StCtx.render(ctx, variablesMap, getBoundType(), newDeclTypes::add, fieldCfg.getDefault(), singletonMap("model", this), STWriter.NO_WRAP));
                     }
                     if (fieldCfg.getRename() != null)
                         iField.setName(fieldCfg.getRename());
@@ -396,7 +398,10 @@ public class ClassType implements JavaType {
                         "java/primitives.h",
                         "optional")));
 
-        final Stream<Map.Entry<String, String>> primitiveFieldInitializers = getSerializationFields().stream()
+        // Fields are addressed by their index in the slot table of the tag.
+        final List<FieldType> slots = getSerializationFields();
+
+        final Stream<Map.Entry<String, String>> primitiveFieldInitializers = slots.stream()
                 .filter(field -> !field.isOmit())
                 .filter(field -> field.getDecodeStage().isAtInitialStage())
                 .filter(isPrimitive)
@@ -404,24 +409,24 @@ public class ClassType implements JavaType {
                     final String typeFullyQualifiedName = Stream.concat(field.getSerializationType().getNamespace().stream(), Stream.of(field.getSerializationType().getClassName()))
                             .collect(Collectors.joining("::", "::", ""));
 
-                    final String initializer = ctxArg.getName() + ".get_primitive_field<${" + typeFullyQualifiedName.replaceAll(Pattern.quote("$"), Matcher.quoteReplacement("\\$")) + "}$>("
-                            + "u$cxxString({" + field.getSerializationName().replaceAll(Pattern.quote("$"), Matcher.quoteReplacement("\\$")) + "})$"
+                    final String initializer = ctxArg.getName() + ".get_primitive_slot<${" + typeFullyQualifiedName.replaceAll(Pattern.quote("$"), Matcher.quoteReplacement("\\$")) + "}$>("
+                            + slots.indexOf(field)
                             + (field.getDefault() != null ? ", std::optional<${" + typeFullyQualifiedName.replaceAll(Pattern.quote("$"), Matcher.quoteReplacement("\\$")) + "}$>(" + field.getDefault() + ")" : "")
                             + ")";
                     return new SimpleMapEntry<>(field.getName(), initializer);
                 });
 
-        final Stream<Map.Entry<String, String>> finalFieldInitializers = getSerializationFields().stream()
+        final Stream<Map.Entry<String, String>> finalFieldInitializers = slots.stream()
                 .filter(field -> !field.isOmit())
                 .filter(field -> field.getDecodeStage().isAtInitialStage())
                 .filter(isPrimitive.negate())
                 .map(field -> {
                     final String castType = ConstTypeRenderer.apply(field.getVarType(), "style=type, class");
-                    final String getFieldMethod = field.isCompleteInit() ? "get_complete_field" : "get_initial_field";
+                    final String getFieldMethod = field.isCompleteInit() ? "get_complete_slot" : "get_initial_slot";
 
                     final String initializer = ctxArg.getName() + "." + getFieldMethod + "<${" + castType.replaceAll(Pattern.quote("$"), Matcher.quoteReplacement("\\$")) + "}$>("
-                            + "u$cxxString({" + field.getSerializationName().replaceAll(Pattern.quote("$"), Matcher.quoteReplacement("\\$")) + "})$"
-                            + ")"; // get_complete_field
+                            + slots.indexOf(field)
+                            + ")"; // get_complete_slot
                     return new SimpleMapEntry<>(field.getName(), initializer);
                 });
 
@@ -465,6 +470,28 @@ public class ClassType implements JavaType {
      * @return Defaulted template arguments.
      */
     public ArrayList<Map.Entry<String, BoundTemplate>> getErasedTemplateArguments() {
+        return new ArrayList<>(getErasedTemplateBindings().entrySet());
+    }
+
+    /**
+     * Retrieve the mapping of template argument names to their erased type.
+     *
+     * The mapping is computed once and shared between callers.
+     *
+     * @return Mapping of template argument names to their erased type, in the
+     * order of {@link #getErasedTemplateArguments()}.
+     */
+    public Map<String, BoundTemplate> getErasedTemplateBindings() {
+        Map<String, BoundTemplate> result = erasedTemplateBindings;
+        if (result == null) {
+            final Map<String, BoundTemplate> computed = new LinkedHashMap<>();
+            computeErasedTemplateArguments().forEach(entry -> computed.put(entry.getKey(), BoundTemplateInterner.intern(entry.getValue())));
+            erasedTemplateBindings = result = unmodifiableMap(computed);
+        }
+        return result;
+    }
+
+    private List<Map.Entry<String, BoundTemplate>> computeErasedTemplateArguments() {
         // Output result.
         final LinkedHashMap<String, List<BoundTemplate>> mapping = new LinkedHashMap<>();
         // Process raw arguments in deterministic order.
@@ -515,9 +542,9 @@ public class ClassType implements JavaType {
         rawArguments.forEach(new Processor());
 
         // Return result of processing operation.
-        return new ArrayList<>(mapping.entrySet().stream()
+        return mapping.entrySet().stream()
                 .map(mappingEntry -> new SimpleMapEntry<>(mappingEntry.getKey(), BoundTemplate.MultiType.maybeMakeMultiType(mappingEntry.getValue())))
-                .collect(Collectors.toList()));
+                .collect(Collectors.toList());
     }
 
     @Override
@@ -530,6 +557,13 @@ public class ClassType implements JavaType {
         return unmodifiableCollection(this.interfaceTypes);
     }
 
+    @Override
+    public Stream<String> getImplementationIncludes(boolean publicOnly) {
+        final Dependencies deps = dependencies();
+        if (deps == null) return getImplementationIncludes(publicOnly, new HashSet<>());
+        return (publicOnly ? deps.publicIncludes : deps.privateIncludes).stream();
+    }
+
     @Override
     public Stream<String> getImplementationIncludes(boolean publicOnly, Set<JavaType> recursionGuard) {
         if (!recursionGuard.add(this)) return Stream.empty();
@@ -584,6 +618,12 @@ public class ClassType implements JavaType {
 
     @Override
     public Stream<JavaType> getForwardDeclarationJavaTypes() {
+        final Dependencies deps = dependencies();
+        if (deps == null) return computeForwardDeclarationJavaTypes();
+        return deps.forwardDeclarationJavaTypes.stream();
+    }
+
+    private Stream<JavaType> computeForwardDeclarationJavaTypes() {
         final Stream<Type> superTypes = Stream.concat(
                 Stream.of(getSuperClass()).filter(Objects::nonNull),
                 getInterfaces().stream());
@@ -602,6 +642,12 @@ public class ClassType implements JavaType {
 
     @Override
     public Stream<JavaType> getDeclarationCompleteJavaTypes() {
+        final Dependencies deps = dependencies();
+        if (deps == null) return computeDeclarationCompleteJavaTypes();
+        return deps.declarationCompleteJavaTypes.stream();
+    }
+
+    private Stream<JavaType> computeDeclarationCompleteJavaTypes() {
         final Stream<Type> superTypes = Stream.concat(
                 Stream.of(getSuperClass()).filter(Objects::nonNull),
                 getInterfaces().stream());
@@ -614,6 +660,12 @@ public class ClassType implements JavaType {
 
     @Override
     public Stream<JavaType> getDeclarationForwardJavaTypes() {
+        final Dependencies deps = dependencies();
+        if (deps == null) return computeDeclarationForwardJavaTypes();
+        return deps.declarationForwardJavaTypes.stream();
+    }
+
+    private Stream<JavaType> computeDeclarationForwardJavaTypes() {
         final Stream<Type> templateTypes = getTemplateArguments().stream()
                 .map(ClassTemplateArgument::getExtendBounds)
                 .flatMap(Collection::stream);
@@ -633,6 +685,12 @@ public class ClassType implements JavaType {
 
     @Override
     public Stream<JavaType> getImplementationJavaTypes() {
+        final Dependencies deps = dependencies();
+        if (deps == null) return computeImplementationJavaTypes();
+        return deps.implementationJavaTypes.stream();
+    }
+
+    private Stream<JavaType> computeImplementationJavaTypes() {
         final Stream<Type> superTypes = Stream.concat(Stream.of(getSuperClass()).filter(Objects::nonNull),
                 getInterfaces().stream());
         final Stream<Type> fieldTypes = getFields().stream()
@@ -830,10 +888,16 @@ public class ClassType implements JavaType {
                         .collect(Collectors.joining());
             });
 
-            final Map<String, BoundTemplate> erasedClassBindings = getErasedTemplateArguments().stream()
-                    .collect(Collectors.collectingAndThen(
-                            Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue),
-                            Collections::unmodifiableMap));
+            final Map<String, BoundTemplate> erasedClassBindings = getErasedTemplateBindings();
+
+            // Index parent methods on their erased selector.
+            // Selector equality only considers name, constness and arguments,
+            // so the index lookup finds the same methods as pairwise comparison.
+            final Map<OverrideSelector, List<ImplementedClassMethod>> parentMethodsBySelector = parentMethods.stream()
+                    .collect(Collectors.groupingBy(
+                            parentMethod -> parentMethod.getSelector().rebind(erasedClassBindings),
+                            LinkedHashMap::new,
+                            Collectors.toList()));
 
             final Map<OverrideSelector, Collection<ImplementedClassMethod>> classMembersWithParentMethods = classMembers.stream()
                     .peek(member -> LOG.log(Level.FINE, "{0}: examining {1}", new Object[]{getName(), member}))
@@ -847,14 +911,9 @@ public class ClassType implements JavaType {
                             Collectors.toMap(
                                     Function.identity(),
                                     classMemberSelector -> {
-                                        return parentMethods.stream()
-                                                .filter(parentMethod -> {
-                                                    final boolean same = Objects.equals(parentMethod.getSelector().rebind(erasedClassBindings), classMemberSelector.rebind(erasedClassBindings));
-                                                    if (Objects.equals(parentMethod.getSelector().getName(), classMemberSelector.getName()))
-                                                        LOG.log(Level.FINE, "{0}:\n  {1}\n  {2}\n  have {3} signature", new Object[]{getName(), parentMethod, classMemberSelector, same ? "the same" : "a different"});
-                                                    return same;
-                                                })
-                                                .collect(Collectors.collectingAndThen(Collectors.toList(), Collections::unmodifiableCollection));
+                                        final List<ImplementedClassMethod> same = parentMethodsBySelector.getOrDefault(classMemberSelector.rebind(erasedClassBindings), EMPTY_LIST);
+                                        same.forEach(parentMethod -> LOG.log(Level.FINE, "{0}:\n  {1}\n  {2}\n  have the same signature", new Object[]{getName(), parentMethod, classMemberSelector}));
+                                        return unmodifiableCollection(same);
                                     },
                                     (x, y) -> {
                                         LOG.log(Level.SEVERE, "{0}: method is declared twice\n  {1}\n  {2}", new Object[]{getName(), x, y});
@@ -912,6 +971,25 @@ public class ClassType implements JavaType {
             classMemberFunctions.forEach(m -> System.out.println("  " + m.getOverrideSelector(ctx).map(Object::toString).orElseGet(() -> m.toString())));
             System.out.println("--------------------------------------------------------");
         }
+
+        postProcessingComplete = true;
+    }
+
+    /**
+     * Retrieve the memoized include and java type sets of this class.
+     *
+     * The sets are only memoized once post processing has completed, since
+     * post processing alters the members of the class.
+     *
+     * @return The dependencies of this class, or null if post processing has
+     * not completed.
+     */
+    private Dependencies dependencies() {
+        if (!postProcessingComplete) return null;
+
+        Dependencies result = dependencies;
+        if (result == null) dependencies = result = new Dependencies(this);
+        return result;
     }
 
     /**
@@ -923,10 +1001,7 @@ public class ClassType implements JavaType {
      */
     private List<ImplementedClassMethod> postProcessCreateAccessorsForChangedTypes(Collection<ImplementedClassMethod> keptParentMethodsWithChangedTypes, Context ctx) {
         final List<ImplementedClassMethod> result = new ArrayList<>();
-        final Map<String, BoundTemplate> erasureBindingMap = getErasedTemplateArguments().stream()
-                .collect(Collectors.collectingAndThen(
-                        Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue),
-                        Collections::unmodifiableMap));
+        final Map<String, BoundTemplate> erasureBindingMap = getErasedTemplateBindings();
 
         keptParentMethodsWithChangedTypes.forEach(method -> {
             final OverrideSelector declare = method.getSelector()
@@ -1465,7 +1540,7 @@ public class ClassType implements JavaType {
                     method.getDocString(),
                     method.getFunctionGenericsNames(),
                     method.getFunctionGenericsDefault(),
-                    getErasedTemplateArguments().stream().collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue))));
+                    getErasedTemplateBindings()));
         });
     }
 
@@ -1499,6 +1574,15 @@ public class ClassType implements JavaType {
         return srcRaw;
     }
 
+    /**
+     * Retrieve the configuration that was used to initialize this class.
+     *
+     * @return The class configuration.
+     */
+    public ClassConfig getClassConfig() {
+        return requireNonNull(classConfig, "must call init() method first!");
+    }
+
     /**
      * Retrieve the {@link ClassConfig.CfgSuperType CfgSuperType} for this type.
      *
@@ -1774,10 +1858,18 @@ public class ClassType implements JavaType {
      * Underlying java class.
      */
     protected final Class<?> c;
+    /**
+     * Configuration used to initialize this class.
+     */
+    private ClassConfig classConfig;
     /**
      * Template arguments for this class.
      */
     private List<ClassTemplateArgument> templateArguments;
+    /**
+     * Memoized result of {@link #getErasedTemplateBindings()}.
+     */
+    private volatile Map<String, BoundTemplate> erasedTemplateBindings;
     /**
      * Super type of this class. May be null, in which case this type has no
      * super class.
@@ -1821,6 +1913,14 @@ public class ClassType implements JavaType {
      * Marker to prevent us from post processing twice.
      */
     private boolean postProcessingDone = false;
+    /**
+     * Marker indicating post processing has completed.
+     */
+    private volatile boolean postProcessingComplete = false;
+    /**
+     * Memoized result of {@link #dependencies()}.
+     */
+    private volatile Dependencies dependencies;
     /**
      * Member functions for the class.
      *
@@ -1864,4 +1964,33 @@ public class ClassType implements JavaType {
      * logic.
      */
     private ClassGenerics classGenerics;
+
+    /**
+     * The includes and java types required by a class.
+     *
+     * Each set is computed once, using a fresh recursion guard, and holds
+     * each element only once.
+     */
+    private static class Dependencies {
+        public Dependencies(ClassType type) {
+            publicIncludes = collect(type.getImplementationIncludes(true, new HashSet<>()));
+            privateIncludes = collect(type.getImplementationIncludes(false, new HashSet<>()));
+            forwardDeclarationJavaTypes = collect(type.computeForwardDeclarationJavaTypes());
+            declarationCompleteJavaTypes = collect(type.computeDeclarationCompleteJavaTypes());
+            declarationForwardJavaTypes = collect(type.computeDeclarationForwardJavaTypes());
+            implementationJavaTypes = collect(type.computeImplementationJavaTypes());
+        }
+
+        private static <T> Set<T> collect(Stream<T> stream) {
+            final Set<T> result = stream.collect(Collectors.toCollection(LinkedHashSet::new));
+            return unmodifiableSet(result);
+        }
+
+        public final Set<String> publicIncludes;
+        public final Set<String> privateIncludes;
+        public final Set<JavaType> forwardDeclarationJavaTypes;
+        public final Set<JavaType> declarationCompleteJavaTypes;
+        public final Set<JavaType> declarationForwardJavaTypes;
+        public final Set<JavaType> implementationJavaTypes;
+    }
 }
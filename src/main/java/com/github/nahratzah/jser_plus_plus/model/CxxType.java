@@ -9,7 +9,6 @@ import static java.util.Collections.unmodifiableMap;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
 import static java.util.Objects.requireNonNull;
@@ -17,7 +16,7 @@ import java.util.Set;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
-import org.stringtemplate.v4.ST;
+import org.stringtemplate.v4.STWriter;
 
 /**
  * A type from C++.
@@ -44,9 +43,7 @@ public final class CxxType implements Type {
         this.thisType = thisType;
 
         final Collection<Type> registry = new HashSet<>();
-        final ST stringTemplate = new ST(StCtx.contextGroup(ctx, this.variables, this.thisType, registry::add), this.template);
-        this.renderArgs.forEach(stringTemplate::add);
-        this.preRendered = stringTemplate.render(Locale.ROOT).trim();
+        this.preRendered = StCtx.render(ctx, this.variables, this.thisType, registry::add, this.template, this.renderArgs, STWriter.NO_WRAP).trim();
         this.declTypes = unmodifiableCollection(registry);
     }
 
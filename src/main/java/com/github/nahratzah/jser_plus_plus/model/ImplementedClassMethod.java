@@ -89,8 +89,7 @@ public class ImplementedClassMethod {
     }
 
     public boolean hasChangedTypes(ClassType implementingClass) {
-        final Map<String, BoundTemplate> implementingBindings = implementingClass.getErasedTemplateArguments().stream()
-                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+        final Map<String, BoundTemplate> implementingBindings = implementingClass.getErasedTemplateBindings();
         final OverrideSelector implementingSelector = selector.rebind(implementingBindings);
         return !Objects.equals(implementingSelector, erasedSelector)
                 || !Objects.equals(implementingSelector.getReturnType(), erasedSelector.getReturnType());
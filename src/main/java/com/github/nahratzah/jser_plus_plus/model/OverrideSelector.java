@@ -55,8 +55,7 @@ public class OverrideSelector {
      * @return The underlying method with type erasure applied.
      */
     public OverrideSelector getErasedMethod(ClassType declaringClass) {
-        final Map<String, BoundTemplate> rebindMap = declaringClass.getErasedTemplateArguments().stream().collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
-        return rebind(rebindMap);
+        return rebind(declaringClass.getErasedTemplateBindings());
     }
 
     /**
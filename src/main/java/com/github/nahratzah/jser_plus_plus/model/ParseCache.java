@@ -0,0 +1,86 @@
+package com.github.nahratzah.jser_plus_plus.model;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import static java.util.Collections.unmodifiableMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Cache of types parsed by
+ * {@link BoundTemplate#fromString(java.lang.String, com.github.nahratzah.jser_plus_plus.input.Context, java.util.Map, com.github.nahratzah.jser_plus_plus.model.BoundTemplate.ClassBinding) BoundTemplate.fromString}.
+ *
+ * Parsed types refer to the classes of the context they were parsed in, so
+ * each context has its own cache.
+ *
+ * Loading is not done through the cache: parsing may resolve a class, which
+ * may recursively parse the same text.
+ *
+ * @author ariane
+ */
+public class ParseCache {
+    /**
+     * Maximum number of parsed types that are kept in the cache.
+     */
+    private static final long MAX_SIZE = 16384;
+
+    Type getIfPresent(String text, Map<String, ? extends BoundTemplate> variables, BoundTemplate.ClassBinding<?> thisType) {
+        return cache.getIfPresent(new Key(text, variables, thisType));
+    }
+
+    void put(String text, Map<String, ? extends BoundTemplate> variables, BoundTemplate.ClassBinding<?> thisType, Type parsed) {
+        cache.put(new Key(text, unmodifiableMap(new HashMap<>(variables)), thisType), requireNonNull(parsed));
+    }
+
+    /**
+     * Retrieve statistics of the cache.
+     *
+     * @return Hit and miss statistics of the cache.
+     */
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    /**
+     * Key of the parse cache.
+     */
+    private static final class Key {
+        public Key(String text, Map<String, ? extends BoundTemplate> variables, BoundTemplate.ClassBinding<?> thisType) {
+            this.text = requireNonNull(text);
+            this.variables = requireNonNull(variables);
+            this.thisType = thisType;
+            this.hashCode = Objects.hash(text, variables, thisType);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) return true;
+            if (obj == null) return false;
+            if (getClass() != obj.getClass()) return false;
+            final Key other = (Key) obj;
+            if (this.hashCode != other.hashCode) return false;
+            if (!Objects.equals(this.text, other.text)) return false;
+            if (!Objects.equals(this.thisType, other.thisType)) return false;
+            if (!Objects.equals(this.variables, other.variables)) return false;
+            return true;
+        }
+
+        private final String text;
+        private final Map<String, ? extends BoundTemplate> variables;
+        private final BoundTemplate.ClassBinding<?> thisType;
+        private final int hashCode;
+    }
+
+    private final Cache<Key, Type> cache = CacheBuilder.newBuilder()
+            .maximumSize(MAX_SIZE)
+            .recordStats()
+            .build();
+}
@@ -6,9 +6,17 @@ import java.io.IOException;
 import java.io.StringWriter;
 import java.io.Writer;
 import java.nio.file.Files;
+import static java.nio.charset.StandardCharsets.UTF_8;
 import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Collection;
+import static java.util.Collections.EMPTY_LIST;
+import static java.util.Collections.singletonList;
 import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -16,9 +24,12 @@ import java.util.Objects;
 import static java.util.Objects.requireNonNull;
 import java.util.Optional;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  *
@@ -31,18 +42,60 @@ public class CmakeModule implements Closeable {
     private static final String LIB_SUBDIR = "lib";
     private static final String GEN_SUBDIR = "generated";
     private static final String SUPPLIED_SUBDIR = "copied";
+    private static final String UNITY_SUBDIR = "unity";
+    /**
+     * Minimum fraction of sources that must (transitively) include a header,
+     * for it to be added to the precompiled header.
+     */
+    private static final double PCH_MIN_FREQUENCY = 0.5;
+    /**
+     * Maximum number of headers in the precompiled header.
+     */
+    private static final int PCH_MAX_HEADERS = 16;
+    private static final Pattern INCLUDE_PATTERN = Pattern.compile("^\\s*#\\s*include\\s*[<\"]([^>\"]+)[>\"]", Pattern.MULTILINE);
 
     public CmakeModule(String targetName, File outputDir, Set<String> extraPackages, Set<String> extraLibs, Set<String> extraIncludeDirs) throws IOException {
+        this(targetName, outputDir, extraPackages, extraLibs, extraIncludeDirs, 0, false, false);
+    }
+
+    /**
+     * Create a new CMake module.
+     *
+     * @param targetName The name of the library target.
+     * @param outputDir The directory in which the module is written.
+     * @param extraPackages Additional packages to find.
+     * @param extraLibs Additional libraries to link against.
+     * @param extraIncludeDirs Additional include directories.
+     * @param unityBundleSize If positive, generated sources are compiled as a
+     * unity build: each bundle includes up to this many generated sources
+     * from the same directory, and only the bundles are compiled. If zero,
+     * each generated source is compiled separately.
+     * @param precompiledHeaders If set, the library target uses a precompiled
+     * header, made up of the supplied and {@code java.lang} headers that are
+     * included by most sources.
+     * @param packageLibraries If set, generated sources are compiled in an
+     * object library per package, which are aggregated into the library
+     * target.
+     * @throws IOException If the output directories could not be created.
+     */
+    public CmakeModule(String targetName, File outputDir, Set<String> extraPackages, Set<String> extraLibs, Set<String> extraIncludeDirs, int unityBundleSize, boolean precompiledHeaders, boolean packageLibraries) throws IOException {
+        if (unityBundleSize < 0)
+            throw new IllegalArgumentException("negative unity bundle size");
+
         this.targetName = requireNonNull(targetName);
         this.outputDir = requireNonNull(outputDir);
         this.extraPackages = requireNonNull(extraPackages);
         this.extraLibs = requireNonNull(extraLibs);
         this.extraIncludeDirs = requireNonNull(extraIncludeDirs);
+        this.unityBundleSize = unityBundleSize;
+        this.precompiledHeaders = precompiledHeaders;
+        this.packageLibraries = packageLibraries;
         Files.createDirectories(this.outputDir.toPath());
         Files.createDirectories(new File(outputDir, GEN_SUBDIR + '/' + HEADER_SUBDIR).toPath());
         Files.createDirectories(new File(outputDir, GEN_SUBDIR + '/' + SOURCE_SUBDIR).toPath());
         Files.createDirectories(new File(outputDir, SUPPLIED_SUBDIR + '/' + HEADER_SUBDIR).toPath());
         Files.createDirectories(new File(outputDir, SUPPLIED_SUBDIR + '/' + SOURCE_SUBDIR).toPath());
+        Files.createDirectories(new File(outputDir, GEN_SUBDIR + '/' + UNITY_SUBDIR).toPath());
     }
 
     private static File fileForGeneratedCodeFile(String subdir, String codeFile) {
@@ -51,6 +104,15 @@ public class CmakeModule implements Closeable {
         return new File(new File(new File(GEN_SUBDIR), subdir), codeFile);
     }
 
+    /**
+     * Register a generated header with the module.
+     *
+     * This method is thread safe.
+     *
+     * @param header The include path of the header.
+     * @return The file to which the header is to be written.
+     * @throws IOException If the parent directory could not be created.
+     */
     public File addHeader(String header) throws IOException {
         final File relativeFileName = fileForGeneratedCodeFile(HEADER_SUBDIR, header);
         final File fileName = new File(outputDir, relativeFileName.getPath());
@@ -59,6 +121,16 @@ public class CmakeModule implements Closeable {
         return fileName;
     }
 
+    /**
+     * Register a generated source file with the module.
+     *
+     * This method is thread safe.
+     *
+     * @param source The path of the source file, relative to the source
+     * directory.
+     * @return The file to which the source is to be written.
+     * @throws IOException If the parent directory could not be created.
+     */
     public File addSource(String source) throws IOException {
         final File relativeFileName = fileForGeneratedCodeFile(SOURCE_SUBDIR, source);
         final File fileName = new File(outputDir, relativeFileName.getPath());
@@ -98,7 +170,7 @@ public class CmakeModule implements Closeable {
 
     public void write(Writer out) throws IOException {
         out
-                .append("cmake_minimum_required(VERSION 3.11)\n")
+                .append("cmake_minimum_required(VERSION ").append(packageLibraries ? "3.12" : "3.11").append(")\n") // Object libraries require 3.12.
                 .append("include (CheckCXXCompilerFlag)\n")
                 .append('\n')
                 .append("option(BUILD_SHARED_LIBS \"Build shared libraries\" ON)\n")
@@ -155,33 +227,264 @@ public class CmakeModule implements Closeable {
                      : extraPackages.stream().sorted().collect(Collectors.toList()))
             out.append("find_package(").append(pkg).append(")");
 
-        out
-                .append("\n")
-                .append("add_library(").append(targetName).append("\n");
+        final Map<String, List<String>> librarySources = getPackageLibraries();
+        final Set<String> packageSources = librarySources.values().stream()
+                .flatMap(Collection::stream)
+                .collect(Collectors.toSet());
+
+        out.append("\n");
+        for (Map.Entry<String, List<String>> packageLibrary : librarySources.entrySet()) {
+            out.append("add_library(").append(packageLibrary.getKey()).append(" OBJECT\n");
+            for (String source : packageLibrary.getValue())
+                out.append("  ").append(source).append('\n');
+            out
+                    .append("  )\n")
+                    .append("set_target_properties(").append(packageLibrary.getKey()).append(" PROPERTIES POSITION_INDEPENDENT_CODE ${BUILD_SHARED_LIBS})\n")
+                    .append('\n');
+        }
+
+        out.append("add_library(").append(targetName).append("\n");
         for (String source
-                     : sources.stream().sorted().collect(Collectors.toList()))
-            out.append("  ").append(source).append('\n');
+                     : getCompiledSources())
+            if (!packageSources.contains(source)) out.append("  ").append(source).append('\n');
+        for (String packageLibrary : librarySources.keySet())
+            out.append("  $<TARGET_OBJECTS:").append(packageLibrary).append(">\n");
         out
                 .append("  )\n")
-                .append('\n')
-                .append("target_link_libraries(").append(targetName).append(" PUBLIC ").append("cycle_ptr").append(")\n");
-        for (String lib
-                     : extraLibs.stream().sorted().collect(Collectors.toList()))
-            out.append("target_link_libraries(").append(targetName).append(" PUBLIC ").append(lib).append(")\n");
-        for (String incDir
-                     : extraIncludeDirs.stream().sorted().collect(Collectors.toList()))
-            out.append("target_include_directories(").append(targetName).append(" PUBLIC ").append(incDir).append(")\n");
+                .append('\n');
+
+        // Object libraries need the same usage requirements as the module.
+        final List<String> compiledTargets = new ArrayList<>(librarySources.keySet());
+        compiledTargets.add(targetName);
+        for (String target : compiledTargets) {
+            out.append("target_link_libraries(").append(target).append(" PUBLIC ").append("cycle_ptr").append(")\n");
+            for (String lib
+                         : extraLibs.stream().sorted().collect(Collectors.toList()))
+                out.append("target_link_libraries(").append(target).append(" PUBLIC ").append(lib).append(")\n");
+            for (String incDir
+                         : extraIncludeDirs.stream().sorted().collect(Collectors.toList()))
+                out.append("target_include_directories(").append(target).append(" PUBLIC ").append(incDir).append(")\n");
+            out
+                    .append("target_include_directories (").append(target).append(" PUBLIC\n")
+                    .append("  $<BUILD_INTERFACE:${CMAKE_CURRENT_SOURCE_DIR}/").append(GEN_SUBDIR).append('/').append(HEADER_SUBDIR).append(">\n")
+                    .append("  $<BUILD_INTERFACE:${CMAKE_CURRENT_SOURCE_DIR}/").append(SUPPLIED_SUBDIR).append('/').append(HEADER_SUBDIR).append(">\n")
+                    .append("  $<INSTALL_INTERFACE:").append(getInstallDir()).append('/').append(HEADER_SUBDIR).append(">)\n")
+                    .append('\n');
+        }
+        if (precompiledHeaders) {
+            final List<String> pchHeaders = getPrecompiledHeaders();
+            if (!pchHeaders.isEmpty()) {
+                out
+                        .append("# Precompiled header, requires cmake 3.16.\n")
+                        .append("if (COMMAND target_precompile_headers)\n");
+                for (String target : compiledTargets) {
+                    out.append("  target_precompile_headers(").append(target).append(" PRIVATE\n");
+                    for (String pchHeader : pchHeaders)
+                        out.append("    <").append(pchHeader).append(">\n");
+                    out.append("    )\n");
+                }
+                out
+                        .append("endif ()\n")
+                        .append('\n');
+            }
+        }
         out
-                .append("target_include_directories (").append(targetName).append(" PUBLIC\n")
-                .append("  $<BUILD_INTERFACE:${CMAKE_CURRENT_SOURCE_DIR}/").append(GEN_SUBDIR).append('/').append(HEADER_SUBDIR).append(">\n")
-                .append("  $<BUILD_INTERFACE:${CMAKE_CURRENT_SOURCE_DIR}/").append(SUPPLIED_SUBDIR).append('/').append(HEADER_SUBDIR).append(">\n")
-                .append("  $<INSTALL_INTERFACE:").append(getInstallDir()).append('/').append(HEADER_SUBDIR).append(">)\n")
-                .append('\n')
                 .append("install(TARGETS ").append(targetName).append(" DESTINATION ").append(getInstallDir()).append('/').append(LIB_SUBDIR).append(")\n");
 
         doHeaders(out);
     }
 
+    /**
+     * Compute the unity build bundles.
+     *
+     * Generated sources are grouped per directory, and each group is split
+     * into bundles of at most {@link #unityBundleSize} sources.
+     *
+     * @return Map of bundle file to the sources it includes. Empty if unity
+     * builds are disabled.
+     */
+    private Map<String, List<String>> getUnityBundles() {
+        final Map<String, List<String>> bundles = new TreeMap<>();
+        if (unityBundleSize == 0) return bundles;
+
+        final Path genSrcDir = new File(GEN_SUBDIR, SOURCE_SUBDIR).toPath();
+        final Path unityDir = new File(GEN_SUBDIR, UNITY_SUBDIR).toPath();
+        final Map<Path, List<String>> sourcesByDir = sources.stream()
+                .filter(source -> new File(source).toPath().startsWith(genSrcDir))
+                .sorted()
+                .collect(Collectors.groupingBy(
+                        source -> genSrcDir.relativize(new File(source).toPath().getParent()),
+                        TreeMap::new,
+                        Collectors.toList()));
+
+        sourcesByDir.forEach((dir, dirSources) -> {
+            for (int i = 0; i * unityBundleSize < dirSources.size(); ++i) {
+                final String bundle = unityDir.resolve(dir).resolve("unity_" + i + ".cc").toString();
+                bundles.put(bundle, dirSources.subList(i * unityBundleSize, Math.min(dirSources.size(), (i + 1) * unityBundleSize)));
+            }
+        });
+        return bundles;
+    }
+
+    /**
+     * Retrieve the sources that are listed in the library target.
+     *
+     * @return Sorted list of all sources, with bundled sources replaced by
+     * their unity build bundle.
+     */
+    private List<String> getCompiledSources() {
+        final Map<String, List<String>> bundles = getUnityBundles();
+        final Set<String> bundled = bundles.values().stream()
+                .flatMap(Collection::stream)
+                .collect(Collectors.toSet());
+
+        return Stream.concat(
+                sources.stream().filter(source -> !bundled.contains(source)),
+                bundles.keySet().stream())
+                .sorted()
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Partition the generated sources into per package object libraries.
+     *
+     * Java packages depend on each other cyclically, so the object libraries
+     * are not linked on their own; instead, they are all aggregated into the
+     * module target.
+     *
+     * @return Map of object library target name to its sources, in package
+     * order. Empty if per package libraries are disabled.
+     */
+    private Map<String, List<String>> getPackageLibraries() {
+        final Map<String, List<String>> libraries = new TreeMap<>();
+        if (!packageLibraries) return libraries;
+
+        final Path genSrcDir = new File(GEN_SUBDIR, SOURCE_SUBDIR).toPath();
+        final Path unityDir = new File(GEN_SUBDIR, UNITY_SUBDIR).toPath();
+        for (String source : getCompiledSources()) {
+            final Path sourcePath = new File(source).toPath();
+            final Path pkg;
+            if (sourcePath.startsWith(genSrcDir))
+                pkg = genSrcDir.relativize(sourcePath).getParent();
+            else if (sourcePath.startsWith(unityDir))
+                pkg = unityDir.relativize(sourcePath).getParent();
+            else
+                continue;
+
+            final String pkgName = (pkg == null ? "default" : pkg.toString().replace(File.separatorChar, '_'));
+            libraries.computeIfAbsent(targetName + "_" + pkgName.replaceAll("[^A-Za-z0-9_]", "_"), k -> new ArrayList<>())
+                    .add(source);
+        }
+        return libraries;
+    }
+
+    /**
+     * Render a unity build bundle.
+     *
+     * @param bundle The file name of the bundle.
+     * @param bundleSources The sources included by the bundle.
+     * @return The contents of the bundle.
+     */
+    private static String renderUnityBundle(String bundle, List<String> bundleSources) {
+        final Path bundleDir = new File(bundle).toPath().getParent();
+        return bundleSources.stream()
+                .map(source -> bundleDir.relativize(new File(source).toPath()))
+                .map(source -> "#include \"" + source.toString().replace(File.separatorChar, '/') + "\"\n")
+                .collect(Collectors.joining("", "// Unity build bundle, generated by jser_plus_plus.\n", ""));
+    }
+
+    /**
+     * Select the headers that make up the precompiled header.
+     *
+     * Candidates are the supplied headers and the headers of the
+     * {@code java.lang} package. A candidate is selected if at least
+     * {@link #PCH_MIN_FREQUENCY} of all sources include it, directly or
+     * indirectly. Up to {@link #PCH_MAX_HEADERS} candidates are selected,
+     * most frequently included first, skipping headers that are included by
+     * an already selected header.
+     *
+     * @return Sorted list of include paths of the precompiled header.
+     * @throws IOException If the generated files can not be read.
+     */
+    private List<String> getPrecompiledHeaders() throws IOException {
+        final Map<String, List<String>> headerIncludes = new HashMap<>();
+        for (Map.Entry<Header, String> header : headers.entrySet())
+            headerIncludes.put(header.getKey().toString(), readIncludes(header.getKey().getDir(), header.getValue()));
+
+        // Count how many sources include each header.
+        final Map<String, Integer> frequency = new HashMap<>();
+        for (String source : sources) {
+            for (String header : includeClosure(readIncludes(Optional.empty(), source), headerIncludes))
+                frequency.merge(header, 1, Integer::sum);
+        }
+
+        final Set<String> suppliedHeaders = headers.entrySet().stream()
+                .filter(header -> !header.getValue().startsWith(GEN_SUBDIR + File.separator))
+                .map(header -> header.getKey().toString())
+                .collect(Collectors.toSet());
+        final List<String> candidates = frequency.entrySet().stream()
+                .filter(entry -> suppliedHeaders.contains(entry.getKey()) || new Header(entry.getKey()).getDir().equals(Optional.of("java/lang")))
+                .filter(entry -> entry.getValue() >= PCH_MIN_FREQUENCY * sources.size())
+                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+
+        // Drop headers that are included by a more frequently included selected header.
+        final Set<String> implied = new HashSet<>();
+        final List<String> result = new ArrayList<>();
+        for (String header : candidates) {
+            if (result.size() >= PCH_MAX_HEADERS) break;
+            if (implied.contains(header)) continue;
+            result.add(header);
+            implied.addAll(includeClosure(singletonList(header), headerIncludes));
+        }
+        result.sort(Comparator.naturalOrder());
+        return result;
+    }
+
+    /**
+     * Read the includes of a file that refer to headers of this module.
+     *
+     * @param dir The include directory of the file, used to resolve
+     * includes relative to the file.
+     * @param file The file, relative to the output directory.
+     * @return The include paths of all headers of this module included by the
+     * file.
+     * @throws IOException If the file can not be read.
+     */
+    private List<String> readIncludes(Optional<String> dir, String file) throws IOException {
+        final String contents = new String(Files.readAllBytes(outputDir.toPath().resolve(file)), UTF_8);
+        final List<String> includes = new ArrayList<>();
+        final Matcher matcher = INCLUDE_PATTERN.matcher(contents);
+        while (matcher.find()) {
+            final String include = matcher.group(1);
+            final Optional<String> relative = dir.map(d -> new File(d, include).toPath().normalize().toString().replace(File.separatorChar, '/'));
+            if (relative.isPresent() && headers.containsKey(new Header(relative.get())))
+                includes.add(relative.get());
+            else if (headers.containsKey(new Header(include)))
+                includes.add(include);
+        }
+        return includes;
+    }
+
+    /**
+     * Compute all headers included, directly or indirectly.
+     *
+     * @param includes The direct includes.
+     * @param headerIncludes The direct includes of each header.
+     * @return The set of all headers included by the direct includes.
+     */
+    private static Set<String> includeClosure(Collection<String> includes, Map<String, List<String>> headerIncludes) {
+        final Set<String> closure = new HashSet<>();
+        final Deque<String> todo = new ArrayDeque<>(includes);
+        while (!todo.isEmpty()) {
+            final String header = todo.pop();
+            if (closure.add(header))
+                todo.addAll(headerIncludes.getOrDefault(header, EMPTY_LIST));
+        }
+        return closure;
+    }
+
     public String getInstallDir() {
         return SUB_INSTALL_DIR + "/" + targetName;
     }
@@ -281,6 +584,12 @@ public class CmakeModule implements Closeable {
         cleanOutputDirectory(outputDir.toPath().resolve(SUPPLIED_SUBDIR).resolve(SOURCE_SUBDIR), sources);
         cleanOutputDirectory(outputDir.toPath().resolve(GEN_SUBDIR).resolve(SOURCE_SUBDIR), sources);
 
+        // Render unity build bundles.
+        final Map<String, List<String>> bundles = getUnityBundles();
+        for (Map.Entry<String, List<String>> bundle : bundles.entrySet())
+            Util.setFileContents(outputDir.toPath().resolve(bundle.getKey()), renderUnityBundle(bundle.getKey(), bundle.getValue()));
+        cleanOutputDirectory(outputDir.toPath().resolve(GEN_SUBDIR).resolve(UNITY_SUBDIR), bundles.keySet());
+
         // Render CMakeLists.txt
         Util.setFileContents(getCmakeOutputFile().toPath(), getContents());
     }
@@ -305,5 +614,18 @@ public class CmakeModule implements Closeable {
     private final Set<String> extraPackages;
     private final Set<String> extraLibs;
     private final Set<String> extraIncludeDirs;
+    /**
+     * Maximum number of generated sources in a unity build bundle. Zero if
+     * unity builds are disabled.
+     */
+    private final int unityBundleSize;
+    /**
+     * If set, the library target uses a precompiled header.
+     */
+    private final boolean precompiledHeaders;
+    /**
+     * If set, generated sources are compiled in per package object libraries.
+     */
+    private final boolean packageLibraries;
     private boolean closed = false;
 }
@@ -33,6 +33,8 @@ import java.util.TreeSet;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -57,6 +59,7 @@ public class CodeGenerator {
     private static final STGroup CODE_GENERATOR_TEMPLATE;
     private static final STGroup FILES_TEMPLATE;
     private static final int LINE_WRAP = 80;
+    private static final Logger LOG = Logger.getLogger(CodeGenerator.class.getName());
 
     public CodeGenerator(List<String> baseType) {
         requireNonNull(baseType);
@@ -160,13 +163,62 @@ public class CodeGenerator {
     }
 
     public String headerFile() {
+        final HeaderIncludes includes = headerIncludes(true);
+
+        if (LOG.isLoggable(Level.FINE)) {
+            final HeaderIncludes unminimized = headerIncludes(false);
+            LOG.log(Level.FINE, "{0}: {1} includes ({2} complete headers), {3} before minimization ({4} complete headers)",
+                    new Object[]{getHeaderName(), includes.size(), includes.completeSize(), unminimized.size(), unminimized.completeSize()});
+        }
+
+        return FILES_TEMPLATE.getInstanceOf("headerFile")
+                .add("codeGen", this)
+                .add("includesForTypes", includes.forTypes)
+                .add("includesForAccessors", includes.forAccessors)
+                .add("includesForCompletion", includes.forCompletion)
+                .render(Locale.ROOT, LINE_WRAP);
+    }
+
+    /**
+     * Compute the includes of the header file.
+     *
+     * Declaring a class requires its erased super types to be complete.
+     * Template arguments of those super types are only used in tags and
+     * references, for which a forward declaration suffices. This includes
+     * the accessor inheritance, which names them by tag in the forward
+     * header. Likewise, accessor implementations only require the erased
+     * types they return to be complete. Field types are only used by
+     * reference and always use forward declarations.
+     *
+     * @param minimize If set, only the erased super types are included as
+     * complete headers before the class declarations, and only the erased
+     * accessor return types after them. Otherwise, every type mentioned in a
+     * super type or accessor return type is.
+     * @return The includes of the header file.
+     */
+    private HeaderIncludes headerIncludes(boolean minimize) {
+        final Predicate<JavaType> requiresComplete;
+        final Function<Accessor, Stream<JavaType>> accessorCompleteTypes;
+        if (minimize) {
+            final Set<JavaType> erasedSuperTypes = types.stream()
+                    .flatMap(type -> Stream.concat(Stream.of(type.getSuperClass()).filter(Objects::nonNull), type.getInterfaces().stream()))
+                    .map(BoundTemplate.ClassBinding::getType)
+                    .collect(Collectors.toSet());
+            requiresComplete = erasedSuperTypes::contains;
+            accessorCompleteTypes = Accessor::getImplementationCompleteTypes;
+        } else {
+            requiresComplete = type -> true;
+            accessorCompleteTypes = Accessor::getImplementationTypes;
+        }
+
         final Collection<String> includesForTypes = Stream.concat(
                 Stream.of("java/inline.h", "java/object_intf.h", "java/_maybe_cast.h"),
                 types.stream()
                         .flatMap(type -> {
                             return Streams.concat(
                                     type.getImplementationIncludes(true),
-                                    type.getDeclarationCompleteJavaTypes().map(CodeGenerator::headerName),
+                                    type.getDeclarationCompleteJavaTypes()
+                                            .map(javaType -> requiresComplete.test(javaType) ? headerName(javaType) : fwdHeaderName(javaType)),
                                     type.getDeclarationForwardJavaTypes().map(CodeGenerator::fwdHeaderName));
                         }))
                 .distinct()
@@ -194,7 +246,7 @@ public class CodeGenerator {
 
         final Collection<String> includesForCompletion = types.stream()
                 .map(ClassType::getAccessor)
-                .flatMap(accessor -> accessor.getImplementationTypes().map(CodeGenerator::headerName))
+                .flatMap(accessor -> accessorCompleteTypes.apply(accessor).map(CodeGenerator::headerName))
                 .distinct()
                 .sorted(INCLUDE_SORTER)
                 .filter(include -> !PRE_INCLUDES.contains(include))
@@ -204,12 +256,13 @@ public class CodeGenerator {
                 .filter(include -> !includesForAccessors.contains(include))
                 .collect(Collectors.toCollection(LinkedHashSet::new));
 
-        return FILES_TEMPLATE.getInstanceOf("headerFile")
-                .add("codeGen", this)
-                .add("includesForTypes", includesForTypes)
-                .add("includesForAccessors", includesForAccessors)
-                .add("includesForCompletion", includesForCompletion)
-                .render(Locale.ROOT, LINE_WRAP);
+        final Set<String> typeHeaders = Stream.concat(
+                types.stream().flatMap(ClassType::getDeclarationCompleteJavaTypes),
+                types.stream().map(ClassType::getAccessor).flatMap(Accessor::getImplementationTypes))
+                .map(CodeGenerator::headerName)
+                .collect(Collectors.toSet());
+
+        return new HeaderIncludes(includesForTypes, includesForAccessors, includesForCompletion, typeHeaders);
     }
 
     public String sourceFile() {
@@ -242,17 +295,19 @@ public class CodeGenerator {
                 .sorted(INCLUDE_SORTER)
                 .collect(Collectors.toList());
 
-        final List<JavaType> orderedTypes = types.stream()
-                .sorted(Comparator.comparing(JavaType::getNamespace, new ListComparator<>()).thenComparing(Comparator.comparing(JavaType::getClassName)))
-                .collect(Collectors.toList());
-
         return template
                 .add("name", moduleName)
                 .add("headers", includes)
-                .add("types", orderedTypes)
+                .add("types", orderedModuleTypes(types))
                 .render(Locale.ROOT, LINE_WRAP);
     }
 
+    private static List<JavaType> orderedModuleTypes(Collection<? extends JavaType> types) {
+        return types.stream()
+                .sorted(Comparator.comparing(JavaType::getNamespace, new ListComparator<>()).thenComparing(Comparator.comparing(JavaType::getClassName)))
+                .collect(Collectors.toList());
+    }
+
     public static String moduleHeaderFilename(String moduleName) {
         return "java/modules/" + moduleName + ".h";
     }
@@ -266,7 +321,9 @@ public class CodeGenerator {
     }
 
     public static String moduleSource(String moduleName, Collection<? extends JavaType> types) {
-        return renderModule(FILES_TEMPLATE.getInstanceOf("moduleSource"), moduleName, types);
+        final ST template = FILES_TEMPLATE.getInstanceOf("moduleSource")
+                .add("table", PerfectHash.build(orderedModuleTypes(types), JavaType::getName));
+        return renderModule(template, moduleName, types);
     }
 
     public static List<String> computeBaseType(JavaType c) {
@@ -498,6 +555,10 @@ public class CodeGenerator {
 
         CODE_GENERATOR_TEMPLATE.importTemplates(StCtx.BUILTINS);
         FILES_TEMPLATE.importTemplates(CODE_GENERATOR_TEMPLATE);
+
+        // Load eagerly: lazy loading is not thread safe and we render in parallel.
+        CODE_GENERATOR_TEMPLATE.load();
+        FILES_TEMPLATE.load();
     }
 
     /**
@@ -517,4 +578,41 @@ public class CodeGenerator {
      * This is a sequence of the package name.
      */
     private final List<String> namespace;
+
+    /**
+     * The includes of a header file, per section of the header.
+     */
+    private static class HeaderIncludes {
+        public HeaderIncludes(Collection<String> forTypes, Collection<String> forAccessors, Collection<String> forCompletion, Set<String> typeHeaders) {
+            this.forTypes = forTypes;
+            this.forAccessors = forAccessors;
+            this.forCompletion = forCompletion;
+            this.typeHeaders = typeHeaders;
+        }
+
+        /**
+         * Number of includes.
+         */
+        public int size() {
+            return forTypes.size() + forAccessors.size() + forCompletion.size();
+        }
+
+        /**
+         * Number of includes of complete headers of java types.
+         */
+        public int completeSize() {
+            return (int) Stream.of(forTypes, forAccessors, forCompletion)
+                    .flatMap(Collection::stream)
+                    .filter(typeHeaders::contains)
+                    .count();
+        }
+
+        public final Collection<String> forTypes;
+        public final Collection<String> forAccessors;
+        public final Collection<String> forCompletion;
+        /**
+         * Complete header files of java types that may appear in the includes.
+         */
+        private final Set<String> typeHeaders;
+    }
 }
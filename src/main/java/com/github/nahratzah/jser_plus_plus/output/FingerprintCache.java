@@ -0,0 +1,125 @@
+package com.github.nahratzah.jser_plus_plus.output;
+
+import java.io.IOException;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
+import static java.util.Objects.requireNonNull;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+/**
+ * Persistent mapping of code generator base types to the fingerprint of the
+ * model they were rendered from.
+ *
+ * If a fingerprint is unchanged between runs, the files of the code generator
+ * don't need to be rendered again.
+ *
+ * @author ariane
+ */
+public class FingerprintCache {
+    private static final Logger LOG = Logger.getLogger(FingerprintCache.class.getName());
+    /**
+     * Format of the cache file.
+     *
+     * Changes to the generator don't require a new format: the fingerprints
+     * themselves cover the code of the generator.
+     */
+    private static final String FORMAT = "jser_plus_plus fingerprint cache v4";
+
+    private FingerprintCache(Path file) {
+        this.file = requireNonNull(file);
+    }
+
+    /**
+     * Load the cache from a file.
+     *
+     * If the file does not exist, or has a different format, an empty cache
+     * is returned.
+     *
+     * @param file The file holding the cache.
+     * @return A fingerprint cache that will be saved to the given file.
+     * @throws IOException If the file could not be read.
+     */
+    public static FingerprintCache load(Path file) throws IOException {
+        final FingerprintCache cache = new FingerprintCache(file);
+
+        final String[] lines;
+        try {
+            lines = new String(Files.readAllBytes(file), UTF_8).split("\n");
+        } catch (NoSuchFileException ex) {
+            LOG.log(Level.INFO, "No fingerprint cache at {0}", file);
+            return cache;
+        }
+
+        if (lines.length == 0 || !Objects.equals(FORMAT, lines[0])) {
+            LOG.log(Level.INFO, "Discarding fingerprint cache {0}: format mismatch", file);
+            return cache;
+        }
+
+        for (int i = 1; i < lines.length; ++i) {
+            if (lines[i].isEmpty()) continue;
+
+            final int space = lines[i].indexOf(' ');
+            if (space == -1)
+                throw new IOException(file + ":" + (i + 1) + ": malformed fingerprint line");
+            cache.fingerprints.put(lines[i].substring(space + 1), lines[i].substring(0, space));
+        }
+        LOG.log(Level.CONFIG, "Loaded {0} fingerprints from {1}", new Object[]{cache.fingerprints.size(), file});
+        return cache;
+    }
+
+    /**
+     * Test if the fingerprint for the given key is unchanged.
+     *
+     * @param key The key of the code generator.
+     * @param fingerprint The fingerprint of the code generator.
+     * @return True if the cache holds the same fingerprint for this key.
+     */
+    public boolean isUnchanged(String key, String fingerprint) {
+        return Objects.equals(fingerprints.get(key), requireNonNull(fingerprint));
+    }
+
+    /**
+     * Record the fingerprint for a key.
+     *
+     * This method is thread safe.
+     *
+     * @param key The key of the code generator.
+     * @param fingerprint The fingerprint of the code generator.
+     */
+    public void put(String key, String fingerprint) {
+        fingerprints.put(requireNonNull(key), requireNonNull(fingerprint));
+    }
+
+    /**
+     * Remove all keys that are not in the given collection.
+     *
+     * @param keys The keys to keep.
+     */
+    public void retainAll(Collection<String> keys) {
+        fingerprints.keySet().retainAll(keys);
+    }
+
+    /**
+     * Write the cache to the file it was loaded from.
+     *
+     * @throws IOException If the file could not be written.
+     */
+    public void save() throws IOException {
+        final String contents = fingerprints.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .map(entry -> entry.getValue() + " " + entry.getKey() + "\n")
+                .collect(Collectors.joining("", FORMAT + "\n", ""));
+        Util.setFileContents(file, contents);
+    }
+
+    private final Path file;
+    private final Map<String, String> fingerprints = new ConcurrentHashMap<>();
+}
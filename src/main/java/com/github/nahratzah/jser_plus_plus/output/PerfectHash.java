@@ -0,0 +1,153 @@
+package com.github.nahratzah.jser_plus_plus.output;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import static java.util.Collections.unmodifiableList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Minimal perfect hash table over a set of names.
+ *
+ * The table is rendered into the module source, where
+ * {@code java::serialization::module::table} performs lookups. Keys are
+ * first hashed with seed 0 to select a bucket, then hashed with the
+ * displacement of that bucket as seed to select the slot.
+ *
+ * @author ariane
+ * @param <T> The type of the entries in the table.
+ */
+public class PerfectHash<T> {
+    /**
+     * Average number of keys per bucket.
+     */
+    private static final int KEYS_PER_BUCKET = 2;
+    /**
+     * Upper bound on the displacement search for a single bucket.
+     */
+    private static final int MAX_DISPLACEMENT = 1 << 24;
+
+    private PerfectHash(List<T> entries, List<Integer> displacements) {
+        this.entries = unmodifiableList(entries);
+        this.displacements = unmodifiableList(displacements);
+    }
+
+    /**
+     * Build a minimal perfect hash table.
+     *
+     * The result is deterministic for a given ordering of the items.
+     *
+     * @param <T> The type of the entries in the table.
+     * @param items The entries of the table.
+     * @param nameFn Functor yielding the name by which an entry is looked up.
+     * Names must be unique.
+     * @return A perfect hash table holding all items.
+     */
+    public static <T> PerfectHash<T> build(Collection<? extends T> items, Function<? super T, String> nameFn) {
+        final List<T> itemList = new ArrayList<>(items);
+        final int n = itemList.size();
+        final int numBuckets = Math.max(1, (n + KEYS_PER_BUCKET - 1) / KEYS_PER_BUCKET);
+        final String[] names = itemList.stream().map(nameFn).toArray(String[]::new);
+
+        // Assign each key to a bucket.
+        final List<List<Integer>> buckets = IntStream.range(0, numBuckets)
+                .mapToObj(i -> new ArrayList<Integer>())
+                .collect(Collectors.toList());
+        for (int i = 0; i < n; ++i)
+            buckets.get(Integer.remainderUnsigned(hash(0, names[i]), numBuckets)).add(i);
+
+        // Place the largest buckets first, while the table is still sparse.
+        final List<Integer> bucketOrder = IntStream.range(0, numBuckets).boxed()
+                .sorted(Comparator.comparing((Integer b) -> buckets.get(b).size()).reversed().thenComparing(Comparator.naturalOrder()))
+                .collect(Collectors.toList());
+
+        final Object[] slots = new Object[n];
+        final boolean[] occupied = new boolean[n];
+        final Integer[] displacements = new Integer[numBuckets];
+        Arrays.fill(displacements, 0);
+        for (final int b : bucketOrder) {
+            final List<Integer> bucket = buckets.get(b);
+            if (bucket.isEmpty()) continue;
+
+            int displacement = 1;
+            while (!tryPlace(bucket, names, displacement, occupied)) {
+                if (++displacement == MAX_DISPLACEMENT)
+                    throw new IllegalStateException("unable to compute perfect hash for " + bucket.size() + " keys");
+            }
+
+            displacements[b] = displacement;
+            for (final int i : bucket) {
+                final int slot = Integer.remainderUnsigned(hash(displacement, names[i]), n);
+                occupied[slot] = true;
+                slots[slot] = itemList.get(i);
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        final List<T> entries = (List<T>) Arrays.asList(slots);
+        return new PerfectHash<>(entries, Arrays.asList(displacements));
+    }
+
+    private static boolean tryPlace(List<Integer> bucket, String[] names, int displacement, boolean[] occupied) {
+        final Set<Integer> used = new HashSet<>();
+        for (final int i : bucket) {
+            final int slot = Integer.remainderUnsigned(hash(displacement, names[i]), occupied.length);
+            if (occupied[slot] || !used.add(slot)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Hash function of the table.
+     *
+     * FNV-1a over the UTF-16 code units, starting from an offset basis that is
+     * mixed with the seed, followed by the murmur3 finalizer.
+     *
+     * Must match {@code java::serialization::module::table::hash}.
+     *
+     * @param seed The seed of the hash function.
+     * @param name The name to hash.
+     * @return The 32-bit hash code, to be interpreted as unsigned.
+     */
+    public static int hash(int seed, String name) {
+        int h = 0x811c9dc5 ^ seed;
+        for (int i = 0; i < name.length(); ++i) {
+            h ^= name.charAt(i);
+            h *= 0x01000193;
+        }
+
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    /**
+     * The entries of the table, in slot order.
+     *
+     * @return List of entries, indexed by slot.
+     */
+    public List<T> getEntries() {
+        return entries;
+    }
+
+    /**
+     * The displacements of the table, indexed by bucket.
+     *
+     * @return List of displacements.
+     */
+    public List<Integer> getDisplacements() {
+        return displacements;
+    }
+
+    private final List<T> entries;
+    private final List<Integer> displacements;
+}
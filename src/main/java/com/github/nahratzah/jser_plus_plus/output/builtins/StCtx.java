@@ -8,13 +8,22 @@ import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.Reader;
 import static java.nio.charset.StandardCharsets.UTF_8;
+import java.util.ArrayDeque;
 import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
+import org.stringtemplate.v4.ST;
 import org.stringtemplate.v4.STGroup;
 import org.stringtemplate.v4.STGroupString;
+import org.stringtemplate.v4.STWriter;
+import org.stringtemplate.v4.compiler.CompiledST;
 
 /**
  * String Template context.
@@ -28,37 +37,138 @@ public class StCtx {
     public static final STGroup BUILTINS;
 
     /**
-     * Create a group that contains the 'java' dictionary.
+     * Number of context groups that were created.
+     */
+    private static final LongAdder CONTEXT_GROUPS = new LongAdder();
+    /**
+     * Number of templates that were compiled in a context group.
+     */
+    private static final LongAdder COMPILATIONS = new LongAdder();
+    /**
+     * Number of templates that were rendered using a context group.
+     */
+    private static final LongAdder RENDERS = new LongAdder();
+    /**
+     * Context groups that are not in use, per thread.
+     *
+     * Rendering may recursively require a context group (for example if a
+     * type lookup causes a class to be initialized), so a thread may use more
+     * than one group at a time.
+     */
+    private static final ThreadLocal<Deque<ContextGroup>> CONTEXT_GROUP_POOL = ThreadLocal.withInitial(ArrayDeque::new);
+
+    /**
+     * Render a template in a group that contains the 'java' dictionary.
      *
      * The java dictionary performs type lookups.
      *
+     * The group is taken from a per-thread pool and is returned to the pool
+     * once rendering completes. Templates are compiled once per group and
+     * reused on subsequent renders of the same text.
+     *
      * @param context The resolver context to use to find classes.
      * @param variables A list of type variables that is known in this context.
      * @param thisType The type for the `this` keyword.
      * @param registry A registry that listens for all types resolved using this
      * context.
-     * @return A STGroup that imports {@link #BUILTINS} and contains the 'java'
+     * @param template The text of the template.
+     * @param attributes Attributes to add to the template.
+     * @param lineWidth The line width used for wrapping, or
+     * {@link STWriter#NO_WRAP}.
+     * @return The rendered template.
+     */
+    public static String render(Context context, Map<String, ? extends BoundTemplate> variables, BoundTemplate.ClassBinding<?> thisType, Consumer<? super BoundTemplate> registry, String template, Map<String, ?> attributes, int lineWidth) {
+        final Deque<ContextGroup> pool = CONTEXT_GROUP_POOL.get();
+        final ContextGroup contextGroup = (pool.isEmpty() ? new ContextGroup() : pool.pop());
+        try {
+            contextGroup.lookup = text -> {
+                final Type type = BoundTemplate.fromString(text, context, variables, thisType);
+
+                // XXX figure out a prettier way to do this.
+                final BoundTemplate boundTemplate;
+                if (type instanceof ConstType)
+                    boundTemplate = (BoundTemplate) ((ConstType) type).getType();
+                else
+                    boundTemplate = (BoundTemplate) type;
+
+                registry.accept(boundTemplate);
+                return type;
+            };
+
+            final ST st = contextGroup.getInstanceOf(template);
+            attributes.forEach(st::add);
+            RENDERS.increment();
+            return st.render(Locale.ROOT, lineWidth);
+        } finally {
+            contextGroup.lookup = null;
+            pool.push(contextGroup);
+        }
+    }
+
+    /**
+     * Number of context groups created so far.
+     *
+     * @return The number of context groups created.
+     */
+    public static long getContextGroupCount() {
+        return CONTEXT_GROUPS.sum();
+    }
+
+    /**
+     * Number of templates compiled in context groups so far.
+     *
+     * @return The number of compiled templates.
+     */
+    public static long getCompilationCount() {
+        return COMPILATIONS.sum();
+    }
+
+    /**
+     * Number of templates rendered using context groups so far.
+     *
+     * @return The number of rendered templates.
+     */
+    public static long getRenderCount() {
+        return RENDERS.sum();
+    }
+
+    /**
+     * A group that imports {@link #BUILTINS} and contains the 'java'
      * dictionary.
+     *
+     * The 'java' dictionary delegates to the lookup function of the current
+     * render, so the group and its compiled templates can be reused.
      */
-    public static final STGroup contextGroup(Context context, Map<String, ? extends BoundTemplate> variables, BoundTemplate.ClassBinding<?> thisType, Consumer<? super BoundTemplate> registry) {
-        final STGroup contextGroup = new STGroupString("<context>", "", '$', '$');
-        contextGroup.defineDictionary(
-                "java",
-                new FunctionAttrMap(text -> {
-                    final Type type = BoundTemplate.fromString(text, context, variables, thisType);
-
-                    // XXX figure out a prettier way to do this.
-                    final BoundTemplate template;
-                    if (type instanceof ConstType)
-                        template = (BoundTemplate) ((ConstType) type).getType();
-                    else
-                        template = (BoundTemplate) type;
-
-                    registry.accept(template);
-                    return type;
-                }));
-        contextGroup.importTemplates(BUILTINS);
-        return contextGroup;
+    private static class ContextGroup {
+        public ContextGroup() {
+            group.defineDictionary("java", new FunctionAttrMap(text -> lookup.apply(text)));
+            group.importTemplates(BUILTINS);
+            CONTEXT_GROUPS.increment();
+        }
+
+        /**
+         * Create a template instance for the given text.
+         *
+         * @param template The text of the template.
+         * @return A new instance of the template, compiled in this group.
+         */
+        public ST getInstanceOf(String template) {
+            CompiledST impl = compiled.get(template);
+            if (impl == null) {
+                // Same steps as the ST(STGroup, String) constructor.
+                impl = group.compile(group.getFileName(), null, null, template, null);
+                impl.hasFormalArgs = false;
+                impl.name = ST.UNKNOWN_NAME;
+                impl.defineImplicitlyDefinedTemplates(group);
+                compiled.put(template, impl);
+                COMPILATIONS.increment();
+            }
+            return group.createStringTemplate(impl);
+        }
+
+        private final STGroup group = new STGroupString("<context>", "", '$', '$');
+        private final Map<String, CompiledST> compiled = new HashMap<>();
+        private Function<String, Object> lookup;
     }
 
     static {
@@ -79,6 +189,9 @@ public class StCtx {
         BUILTINS.registerRenderer(BoundTemplateRenderer.ATTRIBUTE_CLASS, new BoundTemplateRenderer());
         BUILTINS.registerRenderer(CxxTypeRenderer.ATTRIBUTE_CLASS, new CxxTypeRenderer());
         BUILTINS.registerRenderer(ConstTypeRenderer.ATTRIBUTE_CLASS, new ConstTypeRenderer());
+
+        // Load eagerly: lazy loading is not thread safe and we render in parallel.
+        BUILTINS.load();
     }
 
     private static String renderDocString(String docString) {
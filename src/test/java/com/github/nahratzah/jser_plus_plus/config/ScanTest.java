@@ -0,0 +1,65 @@
+package com.github.nahratzah.jser_plus_plus.config;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.function.Predicate;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+public class ScanTest {
+    private static Predicate<String> packageFilter(String[] include, String[] exclude) {
+        final Scan scan = new Scan();
+        scan.setIncludePackages(new HashSet<>(Arrays.asList(include)));
+        scan.setExcludePackages(new HashSet<>(Arrays.asList(exclude)));
+        return scan.packageFilter();
+    }
+
+    @Test
+    public void longestPrefixWins() {
+        final Predicate<String> filter = packageFilter(
+                new String[]{"java", "java.util.concurrent"},
+                new String[]{"java.util"});
+
+        assertTrue(filter.test("java.lang"));
+        assertTrue(filter.test("javax.swing"));
+        assertFalse(filter.test("java.util"));
+        assertFalse(filter.test("java.util.function"));
+        assertTrue(filter.test("java.util.concurrent"));
+        assertTrue(filter.test("java.util.concurrent.atomic"));
+        assertFalse(filter.test("com.example"));
+        assertFalse(filter.test(""));
+    }
+
+    @Test
+    public void excludeWinsOnEqualLength() {
+        final Predicate<String> filter = packageFilter(
+                new String[]{"java.util"},
+                new String[]{"java.util"});
+
+        assertFalse(filter.test("java.util"));
+    }
+
+    @Test
+    public void segmentWildcard() {
+        final Predicate<String> filter = packageFilter(
+                new String[]{"com.example"},
+                new String[]{"com.example.*.internal"});
+
+        assertTrue(filter.test("com.example.app"));
+        assertFalse(filter.test("com.example.app.internal"));
+        assertFalse(filter.test("com.example.app.internal.impl"));
+        assertTrue(filter.test("com.example.app.sub.internal"));
+    }
+
+    @Test
+    public void anyWildcard() {
+        final Predicate<String> filter = packageFilter(
+                new String[]{"com.example"},
+                new String[]{"com.example.**.internal"});
+
+        assertTrue(filter.test("com.example.app"));
+        assertFalse(filter.test("com.example.app.internal"));
+        assertFalse(filter.test("com.example.app.sub.internal"));
+    }
+}
@@ -0,0 +1,79 @@
+package com.github.nahratzah.jser_plus_plus.input;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Optional;
+import java.util.RandomAccess;
+import static org.hamcrest.Matchers.contains;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+public class ClassFileHeaderTest {
+    private static ClassFileHeader readHeader(Class<?> c) throws IOException {
+        try (InputStream in = c.getResourceAsStream('/' + c.getName().replace('.', '/') + ".class")) {
+            return ClassFileHeader.read(in);
+        }
+    }
+
+    @Test
+    public void readClass() throws IOException {
+        final ClassFileHeader header = readHeader(ArrayList.class);
+
+        assertEquals("java.util.ArrayList", header.getName());
+        assertEquals("java.util", header.getPackageName());
+        assertEquals(Optional.of(AbstractList.class.getName()), header.getSuperName());
+        assertTrue(header.getInterfaceNames().contains(RandomAccess.class.getName()));
+        assertTrue(header.getInterfaceNames().contains(Serializable.class.getName()));
+        assertFalse(header.isInterface());
+        assertFalse(header.isAbstract());
+        assertFalse(header.isAnonymous());
+    }
+
+    @Test
+    public void readInterface() throws IOException {
+        final ClassFileHeader header = readHeader(Serializable.class);
+
+        assertEquals("java.io.Serializable", header.getName());
+        assertEquals(Optional.of(Object.class.getName()), header.getSuperName());
+        assertTrue(header.getInterfaceNames().isEmpty());
+        assertTrue(header.isInterface());
+    }
+
+    @Test
+    public void readObject() throws IOException {
+        final ClassFileHeader header = readHeader(Object.class);
+
+        assertEquals(Optional.empty(), header.getSuperName());
+    }
+
+    @Test
+    public void readAnonymousClass() throws IOException {
+        final Runnable anonymous = new Runnable() {
+            @Override
+            public void run() {
+            }
+        };
+        final ClassFileHeader header = readHeader(anonymous.getClass());
+
+        assertEquals(anonymous.getClass().getName(), header.getName());
+        assertThat(header.getInterfaceNames(), contains(Runnable.class.getName()));
+        assertTrue(header.isAnonymous());
+    }
+
+    @Test
+    public void readNestedClass() throws IOException {
+        final ClassFileHeader header = readHeader(Nested.class);
+
+        assertEquals(Nested.class.getName(), header.getName());
+        assertFalse(header.isAnonymous());
+    }
+
+    private static class Nested implements Serializable {
+    }
+}
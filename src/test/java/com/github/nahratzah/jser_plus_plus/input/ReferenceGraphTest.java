@@ -0,0 +1,66 @@
+package com.github.nahratzah.jser_plus_plus.input;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import org.hamcrest.Matchers;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThat;
+import org.junit.Test;
+
+public class ReferenceGraphTest {
+    @Test
+    public void fieldReferences() {
+        assertThat(ReferenceGraph.references(Ping.class),
+                Matchers.containsInAnyOrder(Object.class, Serializable.class, Ping.class, Pong.class, Comparable.class));
+    }
+
+    @Test
+    public void genericReferences() {
+        assertThat(ReferenceGraph.references(Leaf.class),
+                Matchers.containsInAnyOrder(Base.class, Pong.class, Number.class));
+    }
+
+    @Test
+    public void cyclicFieldsShareComponent() {
+        final Map<Class<?>, List<Class<?>>> components = ReferenceGraph.components(Arrays.asList(Ping.class, Leaf.class), ReferenceGraphTest::isLibraryClass);
+
+        assertThat(components.get(Ping.class), Matchers.containsInAnyOrder(Ping.class, Pong.class));
+        assertSame(components.get(Ping.class), components.get(Pong.class));
+        assertEquals(Arrays.asList(Leaf.class), components.get(Leaf.class));
+        assertEquals(Arrays.asList(Base.class), components.get(Base.class));
+    }
+
+    @Test
+    public void excludedClassesAreNotTraversed() {
+        final Map<Class<?>, List<Class<?>>> components = ReferenceGraph.components(Arrays.asList(Leaf.class), c -> isLibraryClass(c) || c == Pong.class);
+
+        assertFalse(components.containsKey(Pong.class));
+        assertFalse(components.containsKey(Ping.class));
+        assertThat(components.keySet(), Matchers.containsInAnyOrder(Leaf.class, Base.class));
+    }
+
+    private static boolean isLibraryClass(Class<?> c) {
+        return c.getName().startsWith("java.");
+    }
+
+    private static class Ping implements Serializable {
+        private Pong pong;
+        private Comparable<? super Ping>[] peers;
+        private transient Thread ignored;
+        private int primitive;
+    }
+
+    private static class Pong implements Serializable {
+        private Ping ping;
+    }
+
+    private static class Base<T> implements Serializable {
+    }
+
+    private static class Leaf<N extends Number> extends Base<Pong> {
+    }
+}
@@ -0,0 +1,49 @@
+package com.github.nahratzah.jser_plus_plus.output;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+public class PerfectHashTest {
+    /**
+     * Emulate the lookup performed by {@code java::serialization::module::table}.
+     */
+    private static <T> T lookup(PerfectHash<T> table, String name) {
+        final List<Integer> displacements = table.getDisplacements();
+        final int displacement = displacements.get(Integer.remainderUnsigned(PerfectHash.hash(0, name), displacements.size()));
+        return table.getEntries().get(Integer.remainderUnsigned(PerfectHash.hash(displacement, name), table.getEntries().size()));
+    }
+
+    @Test
+    public void hashMatchesRuntime() {
+        // Values computed by java::serialization::module::table::hash.
+        assertEquals(2587872888L, Integer.toUnsignedLong(PerfectHash.hash(0, "java.lang.String")));
+        assertEquals(3815343931L, Integer.toUnsignedLong(PerfectHash.hash(7, "java.lang.String")));
+    }
+
+    @Test
+    public void everyNameFindsItself() {
+        final List<String> names = IntStream.range(0, 5000)
+                .mapToObj(i -> "com.example.pkg" + (i % 37) + ".Class$" + i)
+                .collect(Collectors.toList());
+        final PerfectHash<String> table = PerfectHash.build(names, Function.identity());
+
+        assertEquals(names.size(), table.getEntries().size());
+        assertEquals(names.size(), new HashSet<>(table.getEntries()).size());
+        for (String name : names)
+            assertEquals(name, lookup(table, name));
+    }
+
+    @Test
+    public void emptyTable() {
+        final PerfectHash<String> table = PerfectHash.build(new HashSet<String>(), Function.identity());
+
+        assertTrue(table.getEntries().isEmpty());
+        assertEquals(1, table.getDisplacements().size());
+    }
+}